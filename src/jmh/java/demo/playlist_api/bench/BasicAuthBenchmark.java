@@ -0,0 +1,74 @@
+package demo.playlist_api.bench;
+
+import demo.playlist_api.PlaylistApiApplication;
+import demo.playlist_api.service.PlaylistService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide las peticiones por segundo de {@code GET /lists/{listName}} con autenticación HTTP Basic,
+ * con y sin la caché de credenciales verificadas, sobre un servidor real en un puerto aleatorio.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class BasicAuthBenchmark {
+
+    private static final String LIST = "Lista benchmark";
+
+    @Param({"false", "true"})
+    private boolean credentialCache;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(PlaylistApiApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:bench-auth;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--playlist.rate-limit.enabled=false",
+                        "--playlist.security.credential-cache.enabled=" + credentialCache);
+        context.getBean(PlaylistService.class).create(BenchmarkData.playlistDto(LIST, 20));
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        String auth = Base64.getEncoder().encodeToString("user:user123".getBytes(StandardCharsets.UTF_8));
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/lists/Lista%20benchmark"))
+                .header("Authorization", "Basic " + auth)
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getList() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Respuesta inesperada: " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,56 @@
+package demo.playlist_api.bench;
+
+import demo.playlist_api.domain.entity.Playlist;
+import demo.playlist_api.domain.entity.Song;
+import demo.playlist_api.web.dto.PlaylistDto;
+import demo.playlist_api.web.dto.SongDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generador de datos deterministas para los benchmarks.
+ * Los valores tienen longitudes parecidas a las de datos reales para que el coste de copia y serialización sea
+ * representativo.
+ */
+final class BenchmarkData {
+
+    private static final String[] GENEROS = {"Rock", "Pop", "Jazz", "Electrónica", "Clásica", "Hip Hop", "Reggaetón"};
+
+    private BenchmarkData() {}
+
+    /**
+     * Crea el DTO de una lista con el número de canciones indicado.
+     * @param nombre El nombre de la lista.
+     * @param songs El número de canciones.
+     * @return El DTO generado, con canciones sin identificador como las que envían los clientes.
+     */
+    static PlaylistDto playlistDto(String nombre, int songs) {
+        List<SongDto> canciones = new ArrayList<>(songs);
+        for (int i = 0; i < songs; i++) {
+            canciones.add(new SongDto("Canción número " + i + " de " + nombre, "Artista " + (i % 97),
+                    "Álbum recopilatorio " + (i % 31), String.valueOf(1960 + i % 65), GENEROS[i % GENEROS.length]));
+        }
+        return new PlaylistDto(nombre, "Lista generada para pruebas de rendimiento: " + nombre, canciones);
+    }
+
+    /**
+     * Crea la entidad de una lista con el número de canciones indicado y con identificadores asignados,
+     * como si se hubiera leído de la base de datos.
+     * @param nombre El nombre de la lista.
+     * @param songs El número de canciones.
+     * @return La entidad generada.
+     */
+    static Playlist playlist(String nombre, int songs) {
+        Playlist playlist = new Playlist(nombre, "Lista generada para pruebas de rendimiento: " + nombre);
+        playlist.setId(1L);
+        playlist.setVersion(0L);
+        long id = 1;
+        for (SongDto dto : playlistDto(nombre, songs).canciones()) {
+            Song song = new Song(dto.titulo(), dto.artista(), dto.album(), dto.anno(), dto.genero());
+            song.setId(id++);
+            playlist.addSong(song);
+        }
+        return playlist;
+    }
+}
@@ -0,0 +1,42 @@
+package demo.playlist_api.bench;
+
+import demo.playlist_api.domain.entity.Playlist;
+import demo.playlist_api.web.dto.PlaylistDto;
+import demo.playlist_api.web.mapper.PlaylistMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la conversión entre entidades y DTOs de {@link PlaylistMapper} según el número de canciones de la lista.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlaylistMapperBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int songs;
+
+    private Playlist entity;
+    private PlaylistDto dto;
+
+    @Setup
+    public void setUp() {
+        entity = BenchmarkData.playlist("Lista benchmark", songs);
+        dto = BenchmarkData.playlistDto("Lista benchmark", songs);
+    }
+
+    @Benchmark
+    public PlaylistDto toDto() {
+        return PlaylistMapper.toDto(entity);
+    }
+
+    @Benchmark
+    public Playlist toEntity() {
+        return PlaylistMapper.toEntity(dto);
+    }
+}
@@ -0,0 +1,76 @@
+package demo.playlist_api.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import demo.playlist_api.web.dto.PlaylistDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Mide la serialización y deserialización de {@link PlaylistDto} en los formatos que ofrece la API
+ * (JSON y CBOR), con mapeadores configurados como los de Spring Boot.
+ * {@code compression=gzip} añade la compresión que aplica el servidor a las respuestas grandes; al preparar cada
+ * combinación se imprime el tamaño de la respuesta tal como viaja por la red.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlaylistSerializationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int songs;
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    @Param({"none", "gzip"})
+    private String compression;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private PlaylistDto dto;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        ObjectMapper mapper = switch (format) {
+            case "json" -> builder.build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            default -> throw new IllegalArgumentException(format);
+        };
+        writer = mapper.writerFor(PlaylistDto.class);
+        reader = mapper.readerFor(PlaylistDto.class);
+        dto = BenchmarkData.playlistDto("Lista benchmark", songs);
+        encoded = writer.writeValueAsBytes(dto);
+        System.out.printf("%nBytes en la red (%s, %s, %d canciones): %d%n", format, compression, songs, serialize().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        byte[] body = writer.writeValueAsBytes(dto);
+        if ("gzip".equals(compression)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(body);
+            }
+            body = out.toByteArray();
+        }
+        return body;
+    }
+
+    @Benchmark
+    public PlaylistDto deserialize() throws IOException {
+        return reader.readValue(encoded);
+    }
+}
@@ -0,0 +1,96 @@
+package demo.playlist_api.bench;
+
+import demo.playlist_api.PlaylistApiApplication;
+import demo.playlist_api.service.PlaylistService;
+import demo.playlist_api.web.dto.BulkImportResultDto;
+import demo.playlist_api.web.dto.PlaylistDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Mide las lecturas de {@link PlaylistService} contra una base H2 en memoria sembrada con un volumen realista.
+ * El contexto de Spring se arranca una vez por ejecución; {@code cacheSize=0} desactiva la caché de listas
+ * para medir el coste de la consulta y el mapeo; con caché, todas las listas se cargan antes de medir.
+ * {@code secondLevelCache=false} desactiva además la caché de segundo nivel de Hibernate, de modo que cada lectura
+ * llega a la base de datos; con {@code -prof gc} se obtienen los bytes asignados por operación.
+ * {@code readModel=true} sirve las lecturas desde la réplica en memoria del catálogo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PlaylistServiceBenchmark {
+
+    @Param({"2000"})
+    private int playlists;
+
+    @Param({"50"})
+    private int songsPerPlaylist;
+
+    @Param({"0", "10000"})
+    private int cacheSize;
+
+    @Param({"true"})
+    private boolean secondLevelCache;
+
+    @Param({"false"})
+    private boolean readModel;
+
+    private ConfigurableApplicationContext context;
+    private PlaylistService service;
+    private List<String> names;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(PlaylistApiApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--playlist.cache.max-size=" + cacheSize,
+                        "--playlist.read-model.enabled=" + readModel,
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache);
+        service = context.getBean(PlaylistService.class);
+        names = new ArrayList<>(playlists);
+        List<PlaylistDto> items = IntStream.range(0, playlists)
+                .mapToObj(i -> BenchmarkData.playlistDto("Lista %05d".formatted(i), songsPerPlaylist))
+                .toList();
+        BulkImportResultDto result = service.importAll(items.iterator());
+        if (result.creadas() != playlists) {
+            throw new IllegalStateException("Siembra incompleta: " + result);
+        }
+        items.forEach(p -> names.add(p.nombre()));
+        names.forEach(service::findByName);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PlaylistDto findByName() {
+        return service.findByName(names.get(ThreadLocalRandom.current().nextInt(names.size())));
+    }
+
+    @Benchmark
+    public List<PlaylistDto> findAllFirstPage() {
+        return service.findAll(null, 50);
+    }
+
+    @Benchmark
+    public List<PlaylistDto> findAllRandomPage() {
+        return service.findAll(names.get(ThreadLocalRandom.current().nextInt(names.size())), 50);
+    }
+}
@@ -0,0 +1,56 @@
+package demo.playlist_api.bench;
+
+import demo.playlist_api.config.RateLimitFilter;
+import demo.playlist_api.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el coste por petición de {@link RateLimitFilter} con varios hilos, fuera del servidor.
+ * {@code clients=1} hace que todos los hilos compitan por la misma cubeta (el peor caso de contención);
+ * con más clientes cada petición elige uno al azar. El límite es tan alto que ninguna petición se rechaza.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    @Param({"1", "10000"})
+    private int clients;
+
+    private RateLimitFilter filter;
+    private MockHttpServletRequest request;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() {
+        var rule = new RateLimitProperties.Rule("bench", "GET", "/lists/**", 1_000_000, 1e9);
+        filter = new RateLimitFilter(new RateLimitProperties(true, 100_000, Duration.ofMinutes(10), List.of(rule)),
+                new SimpleMeterRegistry(), (req, res, handler, ex) -> null);
+        request = new MockHttpServletRequest("GET", "/lists");
+        chain = (req, res) -> {};
+    }
+
+    @Benchmark
+    public void doFilter() throws Exception {
+        String user = "user-" + ThreadLocalRandom.current().nextInt(clients);
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(user, null, AuthorityUtils.NO_AUTHORITIES));
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+    }
+}
@@ -0,0 +1,55 @@
+package demo.playlist_api.bench;
+
+import demo.playlist_api.domain.repository.PlaylistVersion;
+import demo.playlist_api.service.SongSearchIndex;
+import demo.playlist_api.web.dto.SongDto;
+import demo.playlist_api.web.dto.SongSearchResultDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide {@link SongSearchIndex#search} sobre un índice en memoria, sin base de datos.
+ * Los prefijos cortos ({@code "19"} se expande a cientos de años y números de canción, {@code "re"} a
+ * "recopilatorio" y "reggaeton") recorren muchas listas de apariciones; la consulta de dos términos completos
+ * sirve de referencia. Con {@code -prof gc} se obtienen los bytes asignados por búsqueda.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SongSearchBenchmark {
+
+    private static final int SONGS_PER_PLAYLIST = 100;
+
+    @Param({"100000"})
+    private int songs;
+
+    @Param({"19", "re", "cancion artista"})
+    private String query;
+
+    private SongSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new SongSearchIndex(null, null);
+        long songId = 1;
+        for (int p = 0; p < songs / SONGS_PER_PLAYLIST; p++) {
+            String name = "Lista %05d".formatted(p);
+            List<SongDto> indexed = new ArrayList<>(SONGS_PER_PLAYLIST);
+            for (SongDto s : BenchmarkData.playlistDto(name, SONGS_PER_PLAYLIST).canciones()) {
+                indexed.add(new SongDto(songId++, s.titulo(), s.artista(), s.album(), s.anno(), s.genero()));
+            }
+            index.index(new PlaylistVersion((long) p, 0L, null), name, indexed);
+        }
+    }
+
+    @Benchmark
+    public SongSearchResultDto search() {
+        return index.search(query, 0, 20);
+    }
+}
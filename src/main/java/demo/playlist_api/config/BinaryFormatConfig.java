@@ -0,0 +1,42 @@
+package demo.playlist_api.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Configuración del formato binario CBOR ({@code application/cbor}) como alternativa a JSON.
+ * CBOR codifica los mismos DTO de forma más compacta y más barata de generar; se elige por negociación de contenido
+ * con la cabecera {@code Accept} (o {@code Content-Type} al enviar datos). El conversor se coloca detrás del de JSON,
+ * de modo que los clientes que aceptan cualquier tipo siguen recibiendo JSON.
+ */
+@Configuration
+public class BinaryFormatConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder builder;
+
+    /**
+     * Construye la configuración con el constructor de mapeadores de Spring Boot.
+     * @param builder El constructor de mapeadores, con la misma configuración que el mapeador JSON de la aplicación.
+     */
+    public BinaryFormatConfig(Jackson2ObjectMapperBuilder builder) {
+        this.builder = builder;
+    }
+
+    /**
+     * Sustituye el conversor CBOR por defecto de Spring MVC por uno configurado igual que el de JSON
+     * y lo sitúa al final de la lista.
+     * @param converters Los conversores de mensajes registrados.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(MappingJackson2CborHttpMessageConverter.class::isInstance);
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                builder.createXmlMapper(false).factory(new CBORFactory()).build()));
+    }
+}
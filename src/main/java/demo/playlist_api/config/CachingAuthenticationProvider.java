@@ -0,0 +1,117 @@
+package demo.playlist_api.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Collection;
+
+/**
+ * Proveedor de autenticación que recuerda durante un tiempo limitado las credenciales ya verificadas,
+ * para que las peticiones HTTP Basic sucesivas de un mismo usuario no repitan la comprobación con BCrypt.
+ * <p>
+ * Por cada usuario se guarda un HMAC-SHA256 de su contraseña calculado con una clave aleatoria del proceso,
+ * nunca la contraseña. Una petición cuya contraseña produce el mismo HMAC se autentica sin consultar al
+ * proveedor delegado; cualquier otra, incluidas las fallidas, pasa por él, de modo que los intentos de
+ * adivinar contraseñas siguen pagando el coste de BCrypt. Los cambios en el usuario se aplican, como tarde,
+ * al caducar la entrada.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final AuthenticationProvider delegate;
+    private final Cache<String, VerifiedCredential> cache;
+    private final SecretKeySpec key;
+
+    /**
+     * Construye el proveedor.
+     * @param delegate El proveedor que verifica las credenciales que no están en caché.
+     * @param properties El tamaño máximo y el tiempo de vida de la caché.
+     * @param registry El registro de métricas en el que se publican las estadísticas de la caché.
+     */
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, CredentialCacheProperties properties,
+                                         MeterRegistry registry) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC);
+        CaffeineCacheMetrics.monitor(registry, cache, "credentials");
+    }
+
+    /**
+     * Autentica la petición con la credencial en caché si coincide, o con el proveedor delegado si no.
+     * @param authentication La autenticación con el usuario y la contraseña recibidos.
+     * @return La autenticación verificada.
+     * @throws AuthenticationException si el proveedor delegado rechaza las credenciales.
+     */
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (credentials == null) {
+            return delegate.authenticate(authentication);
+        }
+        byte[] digest = digest(username, credentials.toString());
+        VerifiedCredential cached = cache.getIfPresent(username);
+        if (cached != null && MessageDigest.isEqual(cached.digest(), digest)) {
+            var result = UsernamePasswordAuthenticationToken.authenticated(cached.principal(), null, cached.authorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            cache.put(username, new VerifiedCredential(digest, result.getPrincipal(), result.getAuthorities()));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    /**
+     * Calcula el HMAC de un par usuario-contraseña.
+     * @param username El nombre de usuario.
+     * @param password La contraseña.
+     * @return El HMAC-SHA256 del par.
+     */
+    private byte[] digest(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 no está disponible", e);
+        }
+    }
+
+    /**
+     * Credencial verificada de un usuario.
+     * @param digest El HMAC de la contraseña verificada.
+     * @param principal El usuario autenticado.
+     * @param authorities Los permisos del usuario.
+     */
+    private record VerifiedCredential(byte[] digest, Object principal,
+                                      Collection<? extends GrantedAuthority> authorities) {}
+}
@@ -0,0 +1,18 @@
+package demo.playlist_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Propiedades del flujo de cambios de listas de reproducción ({@code playlist.changes.*}).
+ * @param capacity El número de cambios que se conservan para reanudar; se redondea a la siguiente potencia de 2.
+ *                 Un cliente que se retrase más que eso se desconecta.
+ * @param heartbeat El intervalo de los comentarios SSE con los que se mantiene viva la conexión sin cambios.
+ */
+@ConfigurationProperties(prefix = "playlist.changes")
+public record ChangeFeedProperties(
+        @DefaultValue("4096") int capacity,
+        @DefaultValue("15s") Duration heartbeat
+) {}
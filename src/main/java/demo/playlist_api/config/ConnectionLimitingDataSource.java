@@ -0,0 +1,147 @@
+package demo.playlist_api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link DataSource} que limita el número de conexiones prestadas a la vez con un semáforo justo
+ * del tamaño del pool.
+ * <p>
+ * Con hilos virtuales cada petición tiene su propio hilo, así que miles de peticiones pueden pedir conexión a la vez.
+ * El semáforo las pone en una cola FIFO barata y con un tiempo máximo de espera, en lugar de
+ * que todas compitan dentro del pool. El tiempo de espera se publica en el temporizador
+ * {@code playlist.datasource.connection.wait} y las esperas agotadas en el contador
+ * {@code playlist.datasource.connection.timeouts}.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long timeoutMillis;
+    private final ObjectProvider<MeterRegistry> registry;
+    private volatile Timer waitTimer;
+
+    /**
+     * Construye el limitador.
+     * @param target El pool de conexiones real.
+     * @param maxConnections El número de conexiones que se pueden prestar a la vez; normalmente el tamaño del pool.
+     * @param timeoutMillis El tiempo máximo que una petición espera por una conexión.
+     * @param registry El registro de métricas; se resuelve en la primera conexión para no adelantar su creación.
+     */
+    public ConnectionLimitingDataSource(DataSource target, int maxConnections, long timeoutMillis,
+                                        ObjectProvider<MeterRegistry> registry) {
+        super(target);
+        this.permits = new Semaphore(maxConnections, true);
+        this.timeoutMillis = timeoutMillis;
+        this.registry = registry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return limited(getTargetDataSource()::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return limited(() -> getTargetDataSource().getConnection(username, password));
+    }
+
+    /**
+     * Devuelve el número de conexiones que aún se pueden prestar sin esperar.
+     * @return Los permisos libres del semáforo.
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Espera un permiso del semáforo, registrando el tiempo de espera.
+     * @throws SQLException si se agota el tiempo de espera o el hilo se interrumpe.
+     */
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrumpido esperando una conexión", e);
+        } finally {
+            waitTimer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            registry.ifAvailable(r -> r.counter("playlist.datasource.connection.timeouts").increment());
+            throw new SQLTransientConnectionException(
+                    "No hay conexiones disponibles tras esperar " + timeoutMillis + " ms");
+        }
+    }
+
+    /**
+     * Obtiene una conexión del pool y la envuelve para que devuelva el permiso al cerrarse.
+     * Si no se puede obtener, el permiso se devuelve inmediatamente.
+     * @param source La forma de obtener la conexión del pool.
+     * @return La conexión envuelta.
+     * @throws SQLException si el pool no puede entregar la conexión.
+     */
+    private Connection limited(ConnectionSource source) throws SQLException {
+        Connection connection;
+        try {
+            connection = source.get();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    private Timer waitTimer() {
+        Timer timer = waitTimer;
+        if (timer == null) {
+            timer = Timer.builder("playlist.datasource.connection.wait")
+                    .description("Tiempo de espera por una conexión del pool")
+                    .publishPercentileHistogram()
+                    .register(registry.getObject());
+            waitTimer = timer;
+        }
+        return timer;
+    }
+
+    /**
+     * Forma de obtener una conexión del pool real.
+     */
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+}
@@ -0,0 +1,19 @@
+package demo.playlist_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Propiedades de la caché de credenciales verificadas de HTTP Basic ({@code playlist.security.credential-cache.*}).
+ * @param enabled Si es {@code false}, cada petición vuelve a comprobar la contraseña con BCrypt.
+ * @param maxSize El número máximo de usuarios en caché.
+ * @param ttl El tiempo durante el que una credencial verificada se acepta sin volver a comprobarla.
+ */
+@ConfigurationProperties(prefix = "playlist.security.credential-cache")
+public record CredentialCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10000") long maxSize,
+        @DefaultValue("5m") Duration ttl
+) {}
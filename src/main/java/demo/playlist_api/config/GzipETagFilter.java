@@ -0,0 +1,295 @@
+package demo.playlist_api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Comprime con gzip las respuestas a {@code GET} que llevan una ETag fuerte, como {@code GET /lists/{listName}}.
+ * Tomcat nunca comprime esas respuestas, porque una ETag fuerte identifica unos bytes concretos y la representación
+ * comprimida tiene otros. Por eso cada codificación tiene aquí su propia ETag fuerte: si el cliente acepta gzip, la
+ * respuesta se comprime y a su ETag se le añade el sufijo {@code -gzip} (por ejemplo {@code "12-3-gzip"}).
+ * Las cabeceras {@code If-Match} e {@code If-None-Match} que llegan con ese sufijo se traducen a la ETag sin
+ * comprimir antes de llegar a los controladores, ya que ambas corresponden a la misma versión del recurso.
+ */
+@Component
+public class GzipETagFilter extends OncePerRequestFilter {
+
+    /**
+     * Sufijo que distingue la ETag de la representación comprimida.
+     */
+    static final String SUFFIX = "-gzip";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        HttpServletRequest decoded = hasEncodedTag(request) ? new DecodedRequest(request) : request;
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            chain.doFilter(decoded, response);
+            return;
+        }
+        GzipResponse wrapped = new GzipResponse(response, acceptsGzip(request));
+        chain.doFilter(decoded, wrapped);
+        if (!request.isAsyncStarted()) {
+            wrapped.finish();
+        }
+    }
+
+    /**
+     * Indica si alguna cabecera condicional de la petición contiene una ETag de la representación comprimida.
+     * @param request La petición.
+     * @return {@code true} si hay que traducir {@code If-Match} o {@code If-None-Match}.
+     */
+    private static boolean hasEncodedTag(HttpServletRequest request) {
+        for (String name : List.of(HttpHeaders.IF_MATCH, HttpHeaders.IF_NONE_MATCH)) {
+            Enumeration<String> values = request.getHeaders(name);
+            while (values != null && values.hasMoreElements()) {
+                if (values.nextElement().contains(SUFFIX + "\"")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indica si el cliente acepta respuestas comprimidas con gzip según su cabecera {@code Accept-Encoding}.
+     * @param request La petición.
+     * @return {@code true} si alguna codificación aceptada con calidad distinta de cero es {@code gzip} o {@code *}.
+     */
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        Enumeration<String> values = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (values != null && values.hasMoreElements()) {
+            for (String coding : values.nextElement().split(",")) {
+                String[] parts = coding.split(";");
+                String name = parts[0].trim();
+                boolean refused = parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?");
+                if (!refused && (name.equalsIgnoreCase("gzip") || name.equals("*"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Traduce las ETag de la representación comprimida a las de la representación sin comprimir.
+     * @param value El valor de una cabecera condicional.
+     * @return El valor sin el sufijo {@code -gzip} en sus ETag.
+     */
+    private static String decode(String value) {
+        return value.replace(SUFFIX + "\"", "\"");
+    }
+
+    /**
+     * Petición cuyas cabeceras {@code If-Match} e {@code If-None-Match} usan las ETag sin comprimir.
+     */
+    private static final class DecodedRequest extends HttpServletRequestWrapper {
+
+        DecodedRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            String value = super.getHeader(name);
+            return value != null && isConditional(name) ? decode(value) : value;
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (!isConditional(name)) {
+                return super.getHeaders(name);
+            }
+            List<String> values = Collections.list(super.getHeaders(name));
+            values.replaceAll(GzipETagFilter::decode);
+            return Collections.enumeration(values);
+        }
+
+        private static boolean isConditional(String name) {
+            return HttpHeaders.IF_MATCH.equalsIgnoreCase(name) || HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name);
+        }
+    }
+
+    /**
+     * Respuesta que añade el sufijo {@code -gzip} a su ETag fuerte y comprime su cuerpo si el cliente acepta gzip.
+     * Las respuestas sin ETag fuerte se escriben sin cambios.
+     */
+    private static final class GzipResponse extends HttpServletResponseWrapper {
+
+        private final boolean acceptsGzip;
+        private boolean varied;
+        private boolean tagged;
+        private GzipStream stream;
+        private PrintWriter writer;
+
+        GzipResponse(HttpServletResponse response, boolean acceptsGzip) {
+            super(response);
+            this.acceptsGzip = acceptsGzip;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && tagged) {
+                return;
+            }
+            super.setHeader(name, HttpHeaders.ETAG.equalsIgnoreCase(name) ? encode(value) : value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && tagged) {
+                return;
+            }
+            super.addHeader(name, HttpHeaders.ETAG.equalsIgnoreCase(name) ? encode(value) : value);
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            if (!tagged) {
+                super.setContentLength(length);
+            }
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            if (!tagged) {
+                super.setContentLengthLong(length);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            startCompression();
+            return stream != null ? stream : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            startCompression();
+            if (stream == null) {
+                return super.getWriter();
+            }
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.flush();
+            }
+            super.flushBuffer();
+        }
+
+        /**
+         * Calcula la ETag de la representación que se enviará realmente.
+         * @param value La ETag asignada por el controlador.
+         * @return La misma ETag, o la de la representación comprimida si es fuerte y el cliente acepta gzip.
+         */
+        private String encode(String value) {
+            if (value == null || value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+                return value;
+            }
+            if (!varied) {
+                super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                varied = true;
+            }
+            if (!acceptsGzip) {
+                return value;
+            }
+            tagged = true;
+            return value.substring(0, value.length() - 1) + SUFFIX + "\"";
+        }
+
+        /**
+         * Empieza a comprimir el cuerpo si la respuesta lleva la ETag de la representación comprimida.
+         * @throws IOException si no se puede obtener el flujo de salida.
+         */
+        private void startCompression() throws IOException {
+            if (stream == null && tagged && getStatus() == HttpServletResponse.SC_OK) {
+                super.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                super.setContentLengthLong(-1);
+                stream = new GzipStream(super.getOutputStream());
+            }
+        }
+
+        /**
+         * Escribe el final del flujo comprimido, si lo hay.
+         * @throws IOException si falla la escritura.
+         */
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.gzip.finish();
+            }
+        }
+    }
+
+    /**
+     * Flujo de salida del servlet que comprime con gzip lo que se escribe en él.
+     */
+    private static final class GzipStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private final GZIPOutputStream gzip;
+
+        GzipStream(ServletOutputStream delegate) throws IOException {
+            this.delegate = delegate;
+            this.gzip = new GZIPOutputStream(delegate, 8192);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            gzip.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            gzip.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            gzip.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            gzip.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            delegate.setWriteListener(listener);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package demo.playlist_api.config;
+
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de Jackson común a todos los mapeadores de la aplicación (JSON, CBOR y los del calentamiento).
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Comparte los búferes de lectura y escritura de Jackson entre todas las peticiones.
+     * Por defecto Jackson los recicla por hilo; con hilos virtuales cada petición tiene un hilo nuevo, de modo que
+     * cada respuesta asignaba de nuevo sus búferes. Un pool acotado compartido los reutiliza entre peticiones.
+     * @return El personalizador del constructor de mapeadores.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sharedBufferRecyclerCustomizer() {
+        return builder -> builder.postConfigurer(mapper -> mapper.getFactory()
+                .setRecyclerPool(JsonRecyclerPools.sharedBoundedPool()));
+    }
+}
@@ -0,0 +1,38 @@
+package demo.playlist_api.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de métricas de la aplicación.
+ * Las peticiones HTTP, los repositorios de Spring Data, el pool de conexiones y las estadísticas de Hibernate
+ * los instrumenta Spring Boot; aquí se añaden los temporizadores {@code @Timed} de los servicios
+ * y el recuento de sentencias SQL por petición.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Habilita la anotación {@link io.micrometer.core.annotation.Timed} en los beans de la aplicación.
+     * @param registry El registro de métricas.
+     * @return El aspecto que mide los métodos anotados.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * Registra el contador de sentencias SQL como inspector de sentencias de Hibernate.
+     * @param counter El contador de sentencias.
+     * @return El personalizador de las propiedades de Hibernate.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer(SqlStatementCounter counter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, counter);
+    }
+}
@@ -0,0 +1,31 @@
+package demo.playlist_api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo.playlist_api.service.FileOutboxSink;
+import demo.playlist_api.service.InMemoryOutboxSink;
+import demo.playlist_api.service.OutboxSink;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del destino de los eventos del outbox ({@code playlist.outbox.sink}).
+ */
+@Configuration
+public class OutboxConfig {
+
+    /**
+     * Crea el destino configurado, salvo que la aplicación declare su propio {@link OutboxSink}.
+     * @param properties La configuración del outbox.
+     * @param objectMapper El mapeador JSON de la aplicación, usado por el destino en fichero.
+     * @return El destino de los eventos.
+     */
+    @Bean
+    @ConditionalOnMissingBean(OutboxSink.class)
+    public OutboxSink outboxSink(OutboxProperties properties, ObjectMapper objectMapper) {
+        return switch (properties.sink()) {
+            case FILE -> new FileOutboxSink(properties.file(), objectMapper.writer());
+            case MEMORY -> new InMemoryOutboxSink(properties.memoryCapacity());
+        };
+    }
+}
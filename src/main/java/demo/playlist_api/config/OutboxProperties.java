@@ -0,0 +1,41 @@
+package demo.playlist_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Propiedades del outbox de eventos de listas de reproducción ({@code playlist.outbox.*}).
+ * @param enabled Si es {@code false}, no se escriben eventos en el outbox ni se arranca el relevo.
+ * @param batchSize El número máximo de eventos que un relevo reserva y envía juntos.
+ * @param pollInterval La espera de cada relevo entre dos vaciados del outbox.
+ * @param parallelism El número de relevos, entre 1 y 1024; los eventos se reparten entre ellos por lista.
+ * @param claimTimeout El tiempo que un relevo tiene para enviar un lote reservado antes de que otro pueda reservarlo.
+ * @param sink El destino de los eventos, salvo que se declare un bean {@code OutboxSink} propio.
+ * @param file El fichero NDJSON del destino {@code FILE}.
+ * @param memoryCapacity El número de eventos que conserva el destino {@code MEMORY}.
+ */
+@ConfigurationProperties(prefix = "playlist.outbox")
+public record OutboxProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("500ms") Duration pollInterval,
+        @DefaultValue("1") int parallelism,
+        @DefaultValue("30s") Duration claimTimeout,
+        @DefaultValue("MEMORY") Sink sink,
+        @DefaultValue("outbox-events.ndjson") Path file,
+        @DefaultValue("10000") int memoryCapacity
+) {
+
+    /**
+     * Destinos de eventos incluidos.
+     */
+    public enum Sink {
+        /** Fichero NDJSON ({@link demo.playlist_api.service.FileOutboxSink}). */
+        FILE,
+        /** Memoria, para desarrollo y pruebas ({@link demo.playlist_api.service.InMemoryOutboxSink}). */
+        MEMORY
+    }
+}
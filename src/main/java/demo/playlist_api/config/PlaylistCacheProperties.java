@@ -0,0 +1,17 @@
+package demo.playlist_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Propiedades de la caché de listas de reproducción ya mapeadas ({@code playlist.cache.*}).
+ * @param maxSize El número máximo de listas en caché; al superarlo se desalojan las menos usadas.
+ * @param ttl El tiempo que una entrada permanece en caché desde que se cargó.
+ */
+@ConfigurationProperties(prefix = "playlist.cache")
+public record PlaylistCacheProperties(
+        @DefaultValue("10000") long maxSize,
+        @DefaultValue("10m") Duration ttl
+) {}
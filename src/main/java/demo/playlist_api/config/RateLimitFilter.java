@@ -0,0 +1,267 @@
+package demo.playlist_api.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import demo.playlist_api.web.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filtro de la cadena de seguridad que limita el ritmo de peticiones de cada usuario en cada regla configurada.
+ * <p>
+ * Cada cubeta aplica el algoritmo GCRA (una cubeta de fichas expresada como el instante teórico de la siguiente
+ * petición), de modo que su estado es un único {@code long} que se actualiza con compare-and-set, sin bloqueos.
+ * Las cubetas se guardan en una caché Caffeine acotada en tamaño que descarta las que llevan tiempo sin usarse;
+ * una cubeta descartada equivale a una cubeta llena. Las peticiones autenticadas se cuentan por usuario y las
+ * anónimas por dirección IP. Al superar el límite se responde 429 con {@code Retry-After}, a través de
+ * {@link demo.playlist_api.web.exception.GlobalExceptionHandler} para que el cuerpo sea un {@code ApiError}; si el
+ * cliente solo acepta formatos en los que no se puede escribir, se responde 429 con {@code Retry-After} y sin cuerpo.
+ * <p>
+ * {@link #beforeAuthentication} crea una variante que va delante de la autenticación básica y limita por dirección
+ * IP los intentos sin credenciales o con credenciales incorrectas, para que una avalancha de contraseñas no llegue
+ * a BCrypt sin límite, ni siquiera en paralelo. Cada petición consume una ficha de su IP al llegar y la devuelve si
+ * se autentica, de modo que los usuarios legítimos que comparten IP solo ocupan fichas mientras dura su petición.
+ * <p>
+ * Publica {@code playlist.ratelimit.requests} (por regla y resultado) y {@code playlist.ratelimit.buckets} (por fase,
+ * antes o después de la autenticación).
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final List<Limit> limits;
+    private final boolean beforeAuthentication;
+    private final Cache<BucketKey, Bucket> buckets;
+    private final HandlerExceptionResolver exceptionResolver;
+
+    /**
+     * Construye el filtro que limita las peticiones de cada usuario según las reglas configuradas; debe ir detrás
+     * de la autenticación.
+     * @param properties Las reglas y los límites de memoria de la limitación.
+     * @param registry El registro de métricas.
+     * @param exceptionResolver El resolutor de excepciones de Spring MVC, que genera la respuesta 429.
+     */
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry registry, HandlerExceptionResolver exceptionResolver) {
+        this(properties.rules(), false, properties, registry, exceptionResolver);
+    }
+
+    private RateLimitFilter(List<RateLimitProperties.Rule> rules, boolean beforeAuthentication, RateLimitProperties properties,
+                            MeterRegistry registry, HandlerExceptionResolver exceptionResolver) {
+        this.limits = rules.stream().map(rule -> new Limit(rule, registry)).toList();
+        this.beforeAuthentication = beforeAuthentication;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxKeys())
+                .expireAfterAccess(properties.idleTimeout())
+                .build();
+        this.exceptionResolver = exceptionResolver;
+        Gauge.builder("playlist.ratelimit.buckets", buckets, Cache::estimatedSize)
+                .description("Cubetas de limitación de peticiones en memoria")
+                .tag("stage", beforeAuthentication ? "before-authentication" : "after-authentication")
+                .register(registry);
+    }
+
+    /**
+     * Crea el filtro que limita por dirección IP los intentos sin credenciales o con credenciales incorrectas;
+     * debe ir delante de la autenticación.
+     * @param properties La ráfaga y el ritmo de los intentos anónimos y los límites de memoria.
+     * @param registry El registro de métricas.
+     * @param exceptionResolver El resolutor de excepciones de Spring MVC, que genera la respuesta 429.
+     * @return El filtro.
+     */
+    public static RateLimitFilter beforeAuthentication(RateLimitProperties properties, MeterRegistry registry,
+                                                       HandlerExceptionResolver exceptionResolver) {
+        var rule = new RateLimitProperties.Rule("anonymous", null, "/**", properties.anonymousBurst(), properties.anonymousPerSecond());
+        return new RateLimitFilter(List.of(rule), true, properties, registry, exceptionResolver);
+    }
+
+    /**
+     * Distingue las dos fases del filtro, que son de la misma clase, para que una no se salte la otra.
+     * @return El nombre del atributo que marca la petición como ya filtrada por esta fase.
+     */
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        return super.getAlreadyFilteredAttributeName() + (beforeAuthentication ? ".beforeAuthentication" : "");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Limit limit = match(request);
+        if (limit == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long now = System.nanoTime();
+        String client = beforeAuthentication ? "ip:" + request.getRemoteAddr() : clientKey(request);
+        Bucket bucket = buckets.get(new BucketKey(limit, client), k -> new Bucket(now));
+        long wait = bucket.acquire(now, limit.intervalNanos, limit.toleranceNanos);
+        if (wait > 0) {
+            limit.rejected.increment();
+            TooManyRequestsException ex = new TooManyRequestsException(
+                    "Se ha superado el límite de peticiones de '" + limit.rule.name() + "'", Duration.ofNanos(wait));
+            if (exceptionResolver.resolveException(request, response, null, ex) == null) {
+                // El cliente solo acepta formatos en los que no se puede escribir un ApiError (NDJSON, SSE)
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+            }
+            return;
+        }
+        limit.allowed.increment();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // Antes de autenticar, solo cuentan los intentos sin credenciales o con credenciales incorrectas
+            if (beforeAuthentication && isAuthenticated()) {
+                bucket.release(limit.intervalNanos);
+            }
+        }
+    }
+
+    /**
+     * Busca la primera regla que cumple la petición.
+     * @param request La petición.
+     * @return La regla, o {@code null} si la petición no se limita.
+     */
+    private Limit match(HttpServletRequest request) {
+        for (Limit limit : limits) {
+            if (limit.matcher.matches(request)) {
+                return limit;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Identifica al cliente de la petición: el usuario autenticado o, si no lo hay, su dirección IP.
+     * @param request La petición.
+     * @return La clave del cliente.
+     */
+    private static String clientKey(HttpServletRequest request) {
+        if (!isAuthenticated()) {
+            return "ip:" + request.getRemoteAddr();
+        }
+        return "user:" + SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    /**
+     * Indica si la petición actual está autenticada con un usuario.
+     * @return {@code false} si no hay autenticación o es la anónima.
+     */
+    private static boolean isAuthenticated() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken);
+    }
+
+    /**
+     * Una regla de limitación preparada: su selector de peticiones, sus parámetros GCRA y sus contadores.
+     */
+    private static final class Limit {
+
+        private final RateLimitProperties.Rule rule;
+        private final RequestMatcher matcher;
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final Counter allowed;
+        private final Counter rejected;
+
+        /**
+         * Prepara una regla.
+         * @param rule La regla configurada.
+         * @param registry El registro de métricas.
+         * @throws IllegalArgumentException si la ráfaga o el ritmo no son positivos.
+         */
+        Limit(RateLimitProperties.Rule rule, MeterRegistry registry) {
+            if (rule.burst() < 1 || rule.perSecond() <= 0) {
+                throw new IllegalArgumentException("La regla de limitación '" + rule.name() + "' debe tener ráfaga y ritmo positivos");
+            }
+            this.rule = rule;
+            this.matcher = rule.method() == null
+                    ? AntPathRequestMatcher.antMatcher(rule.path())
+                    : AntPathRequestMatcher.antMatcher(HttpMethod.valueOf(rule.method()), rule.path());
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rule.perSecond());
+            this.toleranceNanos = intervalNanos * rule.burst();
+            this.allowed = counter(registry, rule, "allowed");
+            this.rejected = counter(registry, rule, "rejected");
+        }
+
+        private static Counter counter(MeterRegistry registry, RateLimitProperties.Rule rule, String outcome) {
+            return Counter.builder("playlist.ratelimit.requests")
+                    .description("Peticiones evaluadas por la limitación de peticiones")
+                    .tag("rule", rule.name())
+                    .tag("outcome", outcome)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Clave de una cubeta: una regla y un cliente.
+     * @param limit La regla.
+     * @param client La clave del cliente.
+     */
+    private record BucketKey(Limit limit, String client) {}
+
+    /**
+     * Cubeta GCRA: guarda el instante teórico de llegada (TAT) de la siguiente petición, en nanosegundos de
+     * {@link System#nanoTime()}. Cada petición admitida lo adelanta un intervalo; la petición se rechaza si
+     * adelantarlo lo llevaría más allá de la tolerancia (la ráfaga) respecto al instante actual.
+     */
+    private static final class Bucket extends AtomicLong {
+
+        /**
+         * Crea una cubeta llena.
+         * @param now El instante actual.
+         */
+        Bucket(long now) {
+            super(now);
+        }
+
+        /**
+         * Intenta consumir una ficha.
+         * @param now El instante actual.
+         * @param interval El intervalo entre peticiones al ritmo sostenido.
+         * @param tolerance La tolerancia, igual a la ráfaga por el intervalo.
+         * @return 0 si la petición se admite, o los nanosegundos que faltan para que se admita.
+         */
+        long acquire(long now, long interval, long tolerance) {
+            while (true) {
+                long tat = get();
+                long next = (tat - now > 0 ? tat : now) + interval;
+                long wait = next - tolerance - now;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (compareAndSet(tat, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Devuelve una ficha consumida por una petición que al final no debía contarse.
+         * @param interval El intervalo entre peticiones al ritmo sostenido.
+         */
+        void release(long interval) {
+            addAndGet(-interval);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package demo.playlist_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Propiedades de la limitación de peticiones por usuario ({@code playlist.rate-limit.*}).
+ * @param enabled Si es {@code false}, no se limita ninguna petición.
+ * @param maxKeys El número máximo de cubetas (usuario y regla) que se mantienen en memoria.
+ * @param idleTimeout El tiempo sin peticiones tras el que se descarta la cubeta de un usuario; debe ser mayor que
+ *                    el tiempo que tarda en llenarse cualquier cubeta, para que descartarla equivalga a tenerla llena.
+ * @param rules Las reglas de limitación; cada petición se cuenta en la primera regla que la cumple, y las que no
+ *              cumplen ninguna no se limitan.
+ * @param anonymousBurst El número de intentos sin credenciales o con credenciales incorrectas que se admiten seguidos
+ *                       desde una misma dirección IP, antes de autenticar.
+ * @param anonymousPerSecond El ritmo sostenido de esos intentos por segundo y dirección IP.
+ */
+@ConfigurationProperties(prefix = "playlist.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") long maxKeys,
+        @DefaultValue("10m") Duration idleTimeout,
+        @DefaultValue List<Rule> rules,
+        @DefaultValue("20") int anonymousBurst,
+        @DefaultValue("5") double anonymousPerSecond
+) {
+
+    /**
+     * Una regla de limitación: cada usuario dispone de su propia cubeta por regla.
+     * @param name El nombre de la regla, usado en las métricas.
+     * @param method El método HTTP al que se aplica, o {@code null} para cualquiera.
+     * @param path El patrón de ruta al que se aplica (estilo Ant, p. ej. {@code /lists/**}).
+     * @param burst El número de peticiones que se admiten seguidas con la cubeta llena.
+     * @param perSecond El ritmo sostenido de peticiones por segundo al que se rellena la cubeta.
+     */
+    public record Rule(String name, String method, String path, int burst, double perSecond) {}
+}
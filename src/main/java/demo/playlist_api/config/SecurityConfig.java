@@ -1,7 +1,11 @@
 package demo.playlist_api.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.userdetails.User;
@@ -10,7 +14,9 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.servlet.HandlerExceptionResolver;
 
 import java.util.List;
 
@@ -25,31 +31,48 @@ public class SecurityConfig {
      * Configura la cadena de filtros de seguridad HTTP.
      * - Deshabilita CSRF.
      * - Configura CORS para permitir solicitudes desde http://localhost:4200.
-     * - Define las reglas de autorización para los puntos finales.
+     * - Define las reglas de autorización para los puntos finales: eliminar listas requiere ADMIN,
+     *   mientras que añadir o quitar canciones está permitido a cualquier usuario autenticado.
+     *   Los endpoints de Actuator, salvo {@code /actuator/health} y sus sondas, requieren ADMIN.
      * - Habilita la autenticación básica HTTP.
+     * - Si está habilitada, limita por IP los intentos sin credenciales o fallidos antes de autenticar, y el ritmo de
+     *   peticiones de cada usuario tras autenticarlo ({@link RateLimitFilter}).
      * @param http El objeto HttpSecurity para configurar.
+     * @param rateLimit La configuración de la limitación de peticiones.
+     * @param registry El registro de métricas.
+     * @param exceptionResolver El resolutor de excepciones de Spring MVC, usado para responder a las peticiones limitadas.
      * @return La cadena de filtros de seguridad construida.
      * @throws Exception si ocurre un error durante la configuración.
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, RateLimitProperties rateLimit, MeterRegistry registry,
+                                           @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver)
+            throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(request -> {
                     var c = new CorsConfiguration();
                     c.setAllowedOrigins(List.of("http://localhost:4200"));
-                    c.setAllowedMethods(List.of("GET","POST","DELETE"));
-                    c.setAllowedHeaders(List.of("Authorization","Content-Type"));
+                    c.setAllowedMethods(List.of("GET","POST","PATCH","DELETE"));
+                    c.setAllowedHeaders(List.of("Authorization","Content-Type","If-Match","If-None-Match","If-Modified-Since"));
+                    c.setExposedHeaders(List.of("Link","ETag","Last-Modified","Retry-After"));
                     c.setAllowCredentials(true);
                     return c;
                 }))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/v3/api-docs/**","/swagger-ui/**","/swagger-ui.html").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/admin/**", "/actuator/**").hasRole("ADMIN")
+                        .requestMatchers(org.springframework.http.HttpMethod.DELETE, "/lists/*/songs/**").authenticated()
                         .requestMatchers(org.springframework.http.HttpMethod.DELETE, "/lists/**").hasRole("ADMIN")
                         .requestMatchers("/lists/**").authenticated()
                         .anyRequest().authenticated()
                 )
                 .httpBasic(Customizer.withDefaults());
+        if (rateLimit.enabled()) {
+            http.addFilterBefore(RateLimitFilter.beforeAuthentication(rateLimit, registry, exceptionResolver), BasicAuthenticationFilter.class);
+            http.addFilterAfter(new RateLimitFilter(rateLimit, registry, exceptionResolver), BasicAuthenticationFilter.class);
+        }
         return http.build();
     }
 
@@ -65,6 +88,25 @@ public class SecurityConfig {
         return new InMemoryUserDetailsManager(user, admin);
     }
 
+    /**
+     * Crea el proveedor de autenticación a partir de los usuarios y el codificador de contraseñas.
+     * Si la caché de credenciales está habilitada, las credenciales ya verificadas se aceptan durante un tiempo
+     * sin volver a calcular BCrypt en cada petición.
+     * @param uds El servicio de detalles de usuario.
+     * @param encoder El codificador de contraseñas.
+     * @param properties La configuración de la caché de credenciales.
+     * @param registry El registro de métricas.
+     * @return El proveedor de autenticación.
+     */
+    @Bean
+    public AuthenticationProvider authenticationProvider(UserDetailsService uds, PasswordEncoder encoder,
+                                                         CredentialCacheProperties properties, MeterRegistry registry) {
+        var dao = new DaoAuthenticationProvider();
+        dao.setUserDetailsService(uds);
+        dao.setPasswordEncoder(encoder);
+        return properties.enabled() ? new CachingAuthenticationProvider(dao, properties, registry) : dao;
+    }
+
     /**
      * Proporciona un bean de codificador de contraseñas que utiliza BCrypt.
      * @return Un PasswordEncoder que utiliza el algoritmo BCrypt.
@@ -0,0 +1,46 @@
+package demo.playlist_api.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo actual mientras hay un recuento abierto.
+ * Se registra como {@link StatementInspector} de Hibernate y lo usa {@link SqlStatementMetricsFilter}
+ * para medir cuántas sentencias ejecuta cada petición, de modo que un problema N+1 se vea en las métricas.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector {
+
+    private final ThreadLocal<int[]> count = new ThreadLocal<>();
+
+    /**
+     * Incrementa el recuento del hilo actual, si hay uno abierto, y devuelve la sentencia sin modificar.
+     * @param sql La sentencia que Hibernate va a preparar.
+     * @return La misma sentencia.
+     */
+    @Override
+    public String inspect(String sql) {
+        int[] current = count.get();
+        if (current != null) {
+            current[0]++;
+        }
+        return sql;
+    }
+
+    /**
+     * Abre un recuento nuevo en el hilo actual.
+     */
+    public void start() {
+        count.set(new int[1]);
+    }
+
+    /**
+     * Cierra el recuento del hilo actual.
+     * @return El número de sentencias preparadas desde {@link #start()}, o 0 si no había recuento abierto.
+     */
+    public int stop() {
+        int[] current = count.get();
+        count.remove();
+        return current == null ? 0 : current[0];
+    }
+}
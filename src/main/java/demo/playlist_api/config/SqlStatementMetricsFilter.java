@@ -0,0 +1,56 @@
+package demo.playlist_api.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Registra el número de sentencias SQL de cada petición HTTP en la distribución
+ * {@code playlist.http.sql.statements}, etiquetada con el método y la plantilla de URI del endpoint
+ * (por ejemplo {@code /lists/{listName}}) para que la cardinalidad quede acotada.
+ */
+@Component
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    private final SqlStatementCounter counter;
+    private final MeterRegistry registry;
+
+    /**
+     * Construye el filtro.
+     * @param counter El contador de sentencias de Hibernate.
+     * @param registry El registro de métricas.
+     */
+    public SqlStatementMetricsFilter(SqlStatementCounter counter, MeterRegistry registry) {
+        this.counter = counter;
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        counter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = counter.stop();
+            Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("playlist.http.sql.statements")
+                    .description("Sentencias SQL ejecutadas por petición")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(1000.0)
+                    .register(registry)
+                    .record(statements);
+        }
+    }
+}
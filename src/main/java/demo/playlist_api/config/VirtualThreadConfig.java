@@ -0,0 +1,51 @@
+package demo.playlist_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del modo de ejecución con hilos virtuales ({@code spring.threads.virtual.enabled=true}).
+ * En ese modo Tomcat y el ejecutor de tareas asíncronas de Spring crean un hilo virtual por tarea, y aquí se añade:
+ * - Un limitador delante del pool de conexiones, del mismo tamaño que el pool, para que las peticiones
+ *   esperen su turno en una cola justa y con tiempo máximo ({@link ConnectionLimitingDataSource}).
+ * - Métricas de hilos virtuales anclados a su hilo portador ({@code jvm.threads.virtual.pinned}), obtenidas de JFR.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    /**
+     * Envuelve el pool de conexiones Hikari en un {@link ConnectionLimitingDataSource} del tamaño del pool,
+     * con el mismo tiempo máximo de espera que el pool.
+     * @param registry El registro de métricas, resuelto de forma diferida.
+     * @return El post-procesador que envuelve el {@code DataSource}.
+     */
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return new ConnectionLimitingDataSource(hikari, hikari.getMaximumPoolSize(),
+                            hikari.getConnectionTimeout(), registry);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Registra las métricas de anclaje de hilos virtuales.
+     * @return El registrador de métricas, que se cierra con el contexto.
+     */
+    @Bean(destroyMethod = "close")
+    public VirtualThreadPinningMetrics virtualThreadPinningMetrics() {
+        return new VirtualThreadPinningMetrics();
+    }
+}
@@ -0,0 +1,35 @@
+package demo.playlist_api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+
+/**
+ * Publica en el temporizador {@code jvm.threads.virtual.pinned} los eventos JFR {@code jdk.VirtualThreadPinned}.
+ * Cada evento es un hilo virtual que se bloqueó sin poder liberar su hilo portador durante más de 20 ms,
+ * por ejemplo dentro de un bloque {@code synchronized}.
+ */
+public class VirtualThreadPinningMetrics implements MeterBinder, AutoCloseable {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final RecordingStream recording = new RecordingStream();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Timer pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Tiempo que los hilos virtuales permanecen anclados a su hilo portador")
+                .register(registry);
+        recording.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(20));
+        recording.onEvent(PINNED_EVENT, event -> pinned.record(event.getDuration()));
+        recording.startAsync();
+    }
+
+    @Override
+    public void close() {
+        recording.close();
+    }
+}
@@ -0,0 +1,21 @@
+package demo.playlist_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Propiedades del calentamiento al arrancar ({@code playlist.warmup.*}).
+ * @param enabled Si es {@code false}, la aplicación se marca como lista sin calentar.
+ * @param playlists El número de listas más recientes que se precargan en la caché de listas.
+ * @param iterations El número de vueltas de mapeo y serialización con las que se calienta el JIT.
+ * @param maxDuration El tiempo máximo del calentamiento del JIT; al agotarse se termina aunque queden vueltas.
+ */
+@ConfigurationProperties(prefix = "playlist.warmup")
+public record WarmupProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("500") int playlists,
+        @DefaultValue("20000") int iterations,
+        @DefaultValue("15s") Duration maxDuration
+) {}
@@ -0,0 +1,104 @@
+package demo.playlist_api.domain.entity;
+
+import demo.playlist_api.web.dto.PlaylistChangeDto;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Evento pendiente de enviar a otros sistemas (patrón outbox).
+ * Se inserta en la misma transacción que el cambio de la lista que lo produce, de modo que el evento existe
+ * si y solo si el cambio se confirmó; {@code OutboxRelay} lo envía después en segundo plano y lo elimina.
+ * Mientras un relevo lo está enviando, queda reservado con su token hasta {@link #claimedUntil}; si el relevo
+ * se detiene antes de terminar, la reserva caduca y otro relevo lo vuelve a enviar (entrega al menos una vez).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_claim_token", columnList = "claim_token"),
+        @Index(name = "idx_outbox_shard_claim", columnList = "shard, claimed_until, id")})
+public class OutboxEvent {
+
+    /**
+     * Número de particiones en que se reparten los eventos por lista. Cada relevo se encarga de un rango
+     * contiguo de particiones, así que puede haber como mucho este número de relevos.
+     */
+    public static final int SHARDS = 1024;
+
+    /**
+     * Identificador del evento. Se asigna en bloques, de modo que los eventos de una transacción se insertan
+     * en un solo lote JDBC, y crece en el orden en que se producen los eventos en esta instancia.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Tipo de cambio de la lista.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 20)
+    private PlaylistChangeDto.Tipo type;
+
+    /**
+     * Identificador de la lista; los relevos se reparten los eventos por lista para conservar su orden.
+     */
+    @Column(name = "playlist_id", nullable = false)
+    private Long playlistId;
+
+    /**
+     * Partición del evento, el resto de dividir el identificador de la lista entre {@link #SHARDS}.
+     * Está indexada junto con {@link #claimedUntil} para que cada relevo busque sus eventos libres por índice.
+     */
+    @Column(name = "shard", nullable = false, updatable = false)
+    private int shard;
+
+    /**
+     * Nombre de la lista, tal como está guardado.
+     */
+    @Column(name = "playlist_name", nullable = false, length = 100)
+    private String playlistName;
+
+    /**
+     * Versión de la lista tras el cambio, o la versión eliminada en los borrados.
+     */
+    @Column(name = "playlist_version", nullable = false)
+    private long playlistVersion;
+
+    /**
+     * Fecha en que se produjo el evento.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt = Instant.now();
+
+    /**
+     * Token del relevo que ha reservado el evento, o {@code null} si está libre.
+     */
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    /**
+     * Fin de la reserva; a partir de entonces el evento puede volver a reservarse.
+     */
+    @Column(name = "claimed_until")
+    private Instant claimedUntil;
+
+    /**
+     * Crea un evento de una lista.
+     * @param type El tipo de cambio.
+     * @param playlistId El identificador de la lista.
+     * @param playlistName El nombre de la lista.
+     * @param playlistVersion La versión de la lista.
+     */
+    public OutboxEvent(PlaylistChangeDto.Tipo type, Long playlistId, String playlistName, long playlistVersion) {
+        this.type = type;
+        this.playlistId = playlistId;
+        this.shard = Math.floorMod(playlistId, SHARDS);
+        this.playlistName = playlistName;
+        this.playlistVersion = playlistVersion;
+    }
+}
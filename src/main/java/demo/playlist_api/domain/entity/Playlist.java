@@ -2,29 +2,53 @@ package demo.playlist_api.domain.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.type.SqlTypes;
+import java.text.Normalizer;
 import java.time.Instant;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Entidad Playlist que modela la lista de reproducción.
- * - Nombre único (clave natural) para cumplir el contrato de /lists/{listName}
- * - Relación 1:N con Song (cascada total y eliminación de huérfanos)
+ * - Nombre único sin distinguir mayúsculas (clave natural {@link #nameKey}) para cumplir el contrato de /lists/{listName}
+ * - Relación 1:N con Song (cascada total y eliminación de huérfanos), ordenada por la posición de cada canción
+ * - Agregados desnormalizados de sus canciones (número y histograma de géneros), mantenidos en la misma transacción
+ *   que cada cambio de canciones para que los resúmenes no tengan que leer la tabla de canciones
+ * - Cacheada en la caché de segundo nivel (READ_WRITE, compatible con {@link Version}), junto con su colección
+ *   de canciones y la resolución de su clave natural
  */
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@EqualsAndHashCode(of = "name") // Usa solo el campo 'name' para equals y hashCode
+@EqualsAndHashCode(of = "nameKey") // Usa solo la clave natural para equals y hashCode
 @Entity
-@Table(name = "playlists", uniqueConstraints = @UniqueConstraint(name = "uk_playlist_name", columnNames = "name"))
+@Table(name = "playlists",
+        uniqueConstraints = @UniqueConstraint(name = "uk_playlist_name_key", columnNames = "name_key"),
+        indexes = {
+                @Index(name = "idx_playlist_name", columnList = "name"),
+                @Index(name = "idx_playlist_updated_at", columnList = "updated_at"),
+                @Index(name = "idx_playlist_song_count", columnList = "song_count")
+        })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "playlist")
+@NaturalIdCache(region = "playlist-natural-id")
 public class Playlist {
 
     /**
      * Identificador único de la lista de reproducción.
+     * Se genera con una secuencia de asignación agrupada para que Hibernate pueda agrupar los INSERT en lotes JDBC.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "playlist_seq")
+    @SequenceGenerator(name = "playlist_seq", sequenceName = "playlist_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -34,11 +58,22 @@ public class Playlist {
     private Long version;
 
     /**
-     * Nombre de la lista de reproducción. Debe ser único.
+     * Nombre de la lista de reproducción, tal como lo escribió el usuario.
      */
     @Column(name = "name", nullable = false, length = 100)
+    @Setter(AccessLevel.NONE) // Se asigna con setName para mantener la clave natural sincronizada
     private String name;
 
+    /**
+     * Clave natural de la lista: el nombre normalizado con {@link #nameKey(String)}.
+     * Su índice único hace que la base de datos impida dos listas cuyo nombre solo difiera en mayúsculas,
+     * y todas las búsquedas por nombre se resuelven con él.
+     */
+    @NaturalId
+    @Column(name = "name_key", nullable = false, length = 300, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private String nameKey;
+
     /**
      * Descripción de la lista de reproducción.
      */
@@ -46,12 +81,32 @@ public class Playlist {
     private String description;
 
     /**
-     * Conjunto de canciones asociadas a esta lista de reproducción.
+     * Canciones asociadas a esta lista de reproducción, en el orden definido por su posición.
      * La relación es gestionada por la lista, y los cambios se propagan a las canciones.
+     * Una misma pista puede aparecer varias veces.
      */
     @OneToMany(mappedBy = "playlist", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @OrderBy("position ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "playlist-songs")
     @Setter(AccessLevel.NONE) // Lombok no generará un setter para 'songs'
-    private Set<Song> songs = new LinkedHashSet<>();
+    private List<Song> songs = new ArrayList<>();
+
+    /**
+     * Número de canciones de la lista. Se mantiene junto con {@link #songs}: lo actualizan {@link #addSong(Song)}
+     * y {@link #removeSong(Song)}, y las modificaciones masivas de canciones mediante una actualización condicional.
+     */
+    @Column(name = "song_count", nullable = false)
+    @Setter(AccessLevel.NONE)
+    private int songCount;
+
+    /**
+     * Número de canciones de la lista por género, guardado como JSON en la propia fila.
+     * Las canciones sin género no se cuentan. Se mantiene igual que {@link #songCount}.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "genre_counts", nullable = false)
+    @Setter(AccessLevel.NONE)
+    private Map<String, Integer> genreCounts = new HashMap<>();
 
     /**
      * Marca de tiempo de la creación de la lista de reproducción.
@@ -79,30 +134,58 @@ public class Playlist {
      * @param description La descripción de la lista.
      */
     public Playlist(String name, String description) {
-        this.name = name;
+        setName(name);
         this.description = description;
     }
 
+    /**
+     * Calcula la clave natural de un nombre de lista: normalizado a Unicode NFKC y en minúsculas,
+     * de modo que las variantes que solo difieren en mayúsculas o en la codificación de sus caracteres coinciden.
+     * @param name El nombre de la lista.
+     * @return La clave natural correspondiente.
+     */
+    public static String nameKey(String name) {
+        return Normalizer.normalize(name, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Establece el nombre de la lista y su clave natural.
+     * @param name El nombre de la lista.
+     */
+    public void setName(String name) {
+        this.name = name;
+        this.nameKey = name == null ? null : nameKey(name);
+    }
+
     /**
      * Establece las canciones de la lista, reemplazando las existentes.
-     * Asocia cada canción con esta lista.
-     * @param songs El nuevo conjunto de canciones.
+     * Asocia cada canción con esta lista y les asigna posiciones consecutivas en el orden recibido.
+     * @param songs Las nuevas canciones, en orden.
      */
-    public void setSongs(Set<Song> songs) {
+    public void setSongs(List<Song> songs) {
         this.songs.clear();
+        this.songCount = 0;
+        this.genreCounts.clear();
         if (songs != null) {
             songs.forEach(this::addSong);
         }
     }
 
     /**
-     * Añade una canción a la lista de reproducción.
-     * Establece la relación bidireccional.
+     * Añade una canción al final de la lista de reproducción.
+     * Establece la relación bidireccional y, si la canción no tiene posición, le asigna la siguiente
+     * a la de la última canción, dejando un hueco de {@link Song#POSITION_GAP}.
      * @param song La canción a añadir.
      */
     public void addSong(Song song) {
         song.setPlaylist(this);
+        if (song.getPosition() == null) {
+            long last = songs.isEmpty() ? 0 : songs.get(songs.size() - 1).getPosition();
+            song.setPosition(last + Song.POSITION_GAP);
+        }
         this.songs.add(song);
+        songCount++;
+        addGenre(genreCounts, song.getGenero(), 1);
     }
 
     /**
@@ -112,6 +195,22 @@ public class Playlist {
      */
     public void removeSong(Song song) {
         song.setPlaylist(null);
-        this.songs.remove(song);
+        if (this.songs.remove(song)) {
+            songCount--;
+            addGenre(genreCounts, song.getGenero(), -1);
+        }
+    }
+
+    /**
+     * Suma una cantidad al contador de un género en un histograma, eliminando los géneros que llegan a cero.
+     * @param genreCounts El histograma a modificar.
+     * @param genero El género de la canción; los valores nulos o en blanco se ignoran.
+     * @param delta La cantidad a sumar (negativa al quitar canciones).
+     */
+    public static void addGenre(Map<String, Integer> genreCounts, String genero, int delta) {
+        if (genero == null || genero.isBlank()) {
+            return;
+        }
+        genreCounts.merge(genero, delta, (a, b) -> a + b == 0 ? null : a + b);
     }
 }
\ No newline at end of file
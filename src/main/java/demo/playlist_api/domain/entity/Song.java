@@ -2,24 +2,40 @@ package demo.playlist_api.domain.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entidad Song como agregado hijo de Playlist.
+ * Usa la igualdad por identidad de objeto: dentro de un contexto de persistencia cada fila es una única instancia,
+ * de modo que añadirla a la colección de la lista no requiere calcular el hash de todos sus campos, y dos
+ * canciones con los mismos datos pueden convivir en la misma lista.
+ * El orden dentro de la lista lo fija {@link #position}, un rango disperso: las posiciones se asignan con huecos
+ * de {@link #POSITION_GAP}, de modo que mover una canción solo cambia su propia fila.
+ * Se guarda en la caché de segundo nivel (READ_WRITE) junto con la colección de canciones de su lista.
  */
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@EqualsAndHashCode(exclude = {"id", "playlist"}) // Excluimos el ID y la relación para la igualdad
 @Entity
-@Table(name = "songs")
+@Table(name = "songs", indexes = @Index(name = "idx_song_playlist_position", columnList = "playlist_id, position"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "song")
 public class Song {
 
+    /**
+     * Separación entre las posiciones de canciones consecutivas al añadirlas o renumerarlas.
+     * Permite unas 20 inserciones sucesivas en el mismo hueco antes de tener que renumerar la lista.
+     */
+    public static final long POSITION_GAP = 1L << 20;
+
     /**
      * Identificador único de la canción.
+     * Se genera con una secuencia de asignación agrupada para que Hibernate pueda agrupar los INSERT en lotes JDBC.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "song_seq")
+    @SequenceGenerator(name = "song_seq", sequenceName = "song_seq", allocationSize = 500)
     private Long id;
 
     /**
@@ -52,6 +68,12 @@ public class Song {
     @Column(length = 50)
     private String genero;
 
+    /**
+     * Posición de la canción dentro de su lista. Solo importa el orden relativo, no el valor absoluto.
+     */
+    @Column(name = "position", nullable = false)
+    private Long position;
+
     /**
      * Lista de reproducción a la que pertenece la canción.
      * La relación es gestionada por la canción y es obligatoria.
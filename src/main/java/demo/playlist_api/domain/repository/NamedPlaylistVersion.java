@@ -0,0 +1,24 @@
+package demo.playlist_api.domain.repository;
+
+import java.time.Instant;
+
+/**
+ * Proyección ligera con el nombre, la identidad y la versión de una lista de reproducción.
+ * Permite comprobar la versión de una lista antes de modificarla y conocer su nombre tal como está guardado,
+ * sin cargar sus canciones.
+ * @param name El nombre de la lista.
+ * @param version La identidad y la versión de la lista.
+ */
+public record NamedPlaylistVersion(String name, PlaylistVersion version) {
+
+    /**
+     * Construye la proyección a partir de las columnas de la consulta.
+     * @param name El nombre de la lista.
+     * @param id El identificador de la lista.
+     * @param version La versión de control de concurrencia optimista.
+     * @param updatedAt La marca de tiempo de la última actualización.
+     */
+    public NamedPlaylistVersion(String name, Long id, Long version, Instant updatedAt) {
+        this(name, new PlaylistVersion(id, version, updatedAt));
+    }
+}
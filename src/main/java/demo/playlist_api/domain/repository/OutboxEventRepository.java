@@ -0,0 +1,81 @@
+package demo.playlist_api.domain.repository;
+
+import demo.playlist_api.domain.entity.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio de los eventos pendientes de enviar ({@link OutboxEvent}), usado por el relevo que los envía.
+ * Los eventos se reparten entre los relevos por rangos de particiones ({@link OutboxEvent#getShard()}), y la
+ * partición depende solo de la lista, de modo que los eventos de una misma lista los envía siempre el mismo relevo
+ * y en orden. Los eventos enviados se eliminan, así que la tabla solo contiene los pendientes.
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Busca los eventos más antiguos de un rango de particiones que no están reservados o cuya reserva ha caducado.
+     * El índice {@code (shard, claimed_until, id)} resuelve la consulta sin leer las filas ni las de otros relevos.
+     * @param firstShard La primera partición del rango.
+     * @param lastShard La última partición del rango, incluida.
+     * @param now El instante actual.
+     * @param limit El número máximo de eventos.
+     * @return Los identificadores de los eventos, en orden de identificador.
+     */
+    @Query("select e.id from OutboxEvent e where e.shard between :firstShard and :lastShard "
+            + "and (e.claimedUntil is null or e.claimedUntil < :now) order by e.id")
+    List<Long> findClaimable(int firstShard, int lastShard, Instant now, Limit limit);
+
+    /**
+     * Reserva los eventos indicados que sigan libres, con una sola sentencia condicional: si otro relevo reservó
+     * alguno entretanto, ese evento no se reserva.
+     * @param ids Los identificadores de los eventos.
+     * @param token El token de la reserva.
+     * @param until El fin de la reserva.
+     * @param now El instante actual.
+     * @return El número de eventos reservados.
+     */
+    @Modifying
+    @Query("update OutboxEvent e set e.claimToken = :token, e.claimedUntil = :until "
+            + "where e.id in :ids and (e.claimedUntil is null or e.claimedUntil < :now)")
+    int claim(Collection<Long> ids, String token, Instant until, Instant now);
+
+    /**
+     * Obtiene los eventos reservados con un token.
+     * @param token El token de la reserva.
+     * @return Los eventos, en orden de identificador.
+     */
+    List<OutboxEvent> findByClaimTokenOrderById(String token);
+
+    /**
+     * Elimina los eventos ya enviados, siempre que sigan reservados con el token indicado.
+     * @param ids Los identificadores de los eventos.
+     * @param token El token de la reserva.
+     * @return El número de eventos eliminados.
+     */
+    @Modifying
+    @Query("delete from OutboxEvent e where e.id in :ids and e.claimToken = :token")
+    int deleteClaimed(Collection<Long> ids, String token);
+
+    /**
+     * Libera los eventos que sigan reservados con un token, para que se vuelvan a enviar.
+     * @param token El token de la reserva.
+     * @return El número de eventos liberados.
+     */
+    @Modifying
+    @Query("update OutboxEvent e set e.claimToken = null, e.claimedUntil = null where e.claimToken = :token")
+    int release(String token);
+
+    /**
+     * Obtiene la fecha del evento pendiente más antiguo, el de menor identificador, que se localiza por la clave
+     * primaria sin recorrer la tabla.
+     * @return La fecha, o {@code null} si no hay eventos pendientes.
+     */
+    @Query("select e.createdAt from OutboxEvent e where e.id = (select min(o.id) from OutboxEvent o)")
+    Instant findOldestCreatedAt();
+}
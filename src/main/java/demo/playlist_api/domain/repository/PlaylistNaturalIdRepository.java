@@ -0,0 +1,21 @@
+package demo.playlist_api.domain.repository;
+
+import demo.playlist_api.domain.entity.Playlist;
+
+import java.util.Optional;
+
+/**
+ * Búsqueda de listas de reproducción por su clave natural.
+ */
+public interface PlaylistNaturalIdRepository {
+
+    /**
+     * Busca una lista de reproducción por su nombre, ignorando mayúsculas y minúsculas.
+     * La búsqueda se resuelve por la clave natural, de modo que pasa por la caché de claves naturales y la de
+     * entidades antes de consultar el índice único de la base de datos. Las canciones se cargan al acceder a ellas,
+     * normalmente desde la caché de colecciones.
+     * @param name El nombre de la lista a buscar.
+     * @return Un {@link Optional} que contiene la lista de reproducción si se encuentra, o un Optional vacío si no.
+     */
+    Optional<Playlist> loadByName(String name);
+}
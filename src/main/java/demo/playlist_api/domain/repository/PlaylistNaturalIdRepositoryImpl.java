@@ -0,0 +1,30 @@
+package demo.playlist_api.domain.repository;
+
+import demo.playlist_api.domain.entity.Playlist;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+/**
+ * Implementación de {@link PlaylistNaturalIdRepository} con la API de claves naturales de Hibernate.
+ */
+class PlaylistNaturalIdRepositoryImpl implements PlaylistNaturalIdRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Construye el repositorio.
+     * @param entityManager El gestor de entidades compartido.
+     */
+    PlaylistNaturalIdRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Optional<Playlist> loadByName(String name) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Playlist.class)
+                .loadOptional(Playlist.nameKey(name));
+    }
+}
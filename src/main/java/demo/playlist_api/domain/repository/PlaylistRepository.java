@@ -1,28 +1,161 @@
 package demo.playlist_api.domain.repository;
 
 import demo.playlist_api.domain.entity.Playlist;
-import org.springframework.data.jpa.repository.EntityGraph;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import demo.playlist_api.web.dto.PlaylistSummaryDto;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para la entidad Playlist, gestionando las operaciones de base de datos.
+ * Las búsquedas por nombre usan la clave natural normalizada ({@code name_key}) y su índice único.
  */
-public interface PlaylistRepository extends JpaRepository<Playlist, Long> {
+public interface PlaylistRepository extends JpaRepository<Playlist, Long>, PlaylistNaturalIdRepository {
 
     /**
-     * Comprueba si existe una lista de reproducción con un nombre específico, ignorando mayúsculas y minúsculas.
-     * @param name El nombre de la lista a comprobar.
-     * @return {@code true} si existe una lista con ese nombre, {@code false} en caso contrario.
+     * Comprueba en una sola consulta cuáles de las claves de nombre indicadas ya están en uso.
+     * @param nameKeys Las claves de nombre a comprobar, calculadas con {@link Playlist#nameKey(String)}.
+     * @return Las claves existentes.
      */
-    boolean existsByNameIgnoreCase(String name);
+    @Query("select p.nameKey from Playlist p where p.nameKey in :nameKeys")
+    Set<String> findExistingNameKeys(Collection<String> nameKeys);
 
     /**
-     * Busca una lista de reproducción por su nombre, ignorando mayúsculas y minúsculas, y carga sus canciones asociadas.
-     * La anotación @EntityGraph se utiliza para cargar de forma anticipada la colección de canciones y evitar problemas de N+1.
-     * @param name El nombre de la lista a buscar.
-     * @return Un {@link Optional} que contiene la lista de reproducción si se encuentra, o un Optional vacío si no.
+     * Obtiene solo el nombre, la identidad y la versión de una lista, sin cargar sus canciones.
+     * @param nameKey La clave del nombre de la lista, calculada con {@link Playlist#nameKey(String)}.
+     * @return Un {@link Optional} con la versión de la lista si se encuentra, o un Optional vacío si no.
      */
-    @EntityGraph(attributePaths = {"songs"})
-    Optional<Playlist> findByNameIgnoreCase(String name);
+    @Query("select new demo.playlist_api.domain.repository.NamedPlaylistVersion(p.name, p.id, p.version, p.updatedAt) "
+            + "from Playlist p where p.nameKey = :nameKey")
+    Optional<NamedPlaylistVersion> findVersionByNameKey(String nameKey);
+
+    /**
+     * Obtiene el nombre, la identidad y la versión de varias listas en una sola consulta, sin cargar sus canciones.
+     * @param nameKeys Las claves de los nombres de las listas, calculadas con {@link Playlist#nameKey(String)}.
+     * @return Las versiones de las listas encontradas; las claves que no existen se omiten.
+     */
+    @Query("select new demo.playlist_api.domain.repository.NamedPlaylistVersion(p.name, p.id, p.version, p.updatedAt) "
+            + "from Playlist p where p.nameKey in :nameKeys")
+    List<NamedPlaylistVersion> findVersionsByNameKeys(Collection<String> nameKeys);
+
+    /**
+     * Obtiene la identidad y la versión de todas las listas, sin cargar sus canciones.
+     * @return Las versiones de todas las listas.
+     */
+    @Query("select new demo.playlist_api.domain.repository.PlaylistVersion(p.id, p.version, p.updatedAt) from Playlist p")
+    List<PlaylistVersion> findAllVersions();
+
+    /**
+     * Elimina una lista si sigue en la versión indicada, sin cargarla.
+     * Sus canciones deben haberse eliminado antes, ya que la sentencia no aplica la cascada de JPA.
+     * @param id El identificador de la lista.
+     * @param version La versión que se espera encontrar.
+     * @return 1 si la lista se eliminó, 0 si no existe o está en otra versión.
+     */
+    @Modifying
+    @Query("delete from Playlist p where p.id = :id and p.version = :version")
+    int deleteVersioned(Long id, Long version);
+
+    /**
+     * Incrementa la versión de una lista y actualiza su fecha de modificación si sigue en la versión indicada.
+     * Se usa al modificar canciones sin cargar la lista, para que su ETag cambie y para detectar escrituras concurrentes.
+     * @param id El identificador de la lista.
+     * @param version La versión que se espera encontrar.
+     * @param now La nueva fecha de modificación.
+     * @return 1 si la lista se actualizó, 0 si no existe o está en otra versión.
+     */
+    @Modifying
+    @Query("update Playlist p set p.version = p.version + 1, p.updatedAt = :now where p.id = :id and p.version = :version")
+    int incrementVersion(Long id, Long version, Instant now);
+
+    /**
+     * Obtiene el histograma de géneros desnormalizado de una lista, sin cargar la entidad.
+     * @param id El identificador de la lista.
+     * @return El número de canciones por género.
+     */
+    @Query("select p.genreCounts from Playlist p where p.id = :id")
+    Map<String, Integer> findGenreCounts(Long id);
+
+    /**
+     * Actualiza los agregados desnormalizados de canciones de una lista tras modificar sus canciones con sentencias masivas.
+     * Debe ejecutarse en la misma transacción que esas sentencias y después de {@link #incrementVersion}, que ya
+     * bloquea la fila de la lista frente a escrituras concurrentes.
+     * @param id El identificador de la lista.
+     * @param songDelta La variación del número de canciones.
+     * @param genreCounts El nuevo histograma de géneros.
+     * @return 1 si la lista se actualizó, 0 si no existe.
+     */
+    @Modifying
+    @Query("update Playlist p set p.songCount = p.songCount + :songDelta, p.genreCounts = :genreCounts where p.id = :id")
+    int updateSongAggregates(Long id, int songDelta, Map<String, Integer> genreCounts);
+
+    /**
+     * Recupera una página de resúmenes de listas leyendo solo la tabla de listas, sin unir sus canciones.
+     * El orden lo fija {@code pageable}; los criterios admitidos tienen índice propio.
+     * @param pageable La página y el orden solicitados.
+     * @return La página de resúmenes, que indica si hay más resultados sin necesidad de contarlos.
+     */
+    @Query("select new demo.playlist_api.web.dto.PlaylistSummaryDto(p.name, p.description, p.songCount, p.genreCounts, p.updatedAt) "
+            + "from Playlist p")
+    Slice<PlaylistSummaryDto> findSummaries(Pageable pageable);
+
+    /**
+     * Recupera los identificadores de la siguiente página de listas usando paginación por clave (keyset).
+     * Recorre el índice único de {@code name} en orden ascendente a partir del cursor, sin usar OFFSET.
+     * @param after El nombre de la última lista de la página anterior (exclusivo); cadena vacía para la primera página.
+     * @param limit El número máximo de identificadores a devolver.
+     * @return Los identificadores de las listas de la página, ordenados por nombre.
+     */
+    @Query("select p.id from Playlist p where p.name > :after order by p.name")
+    List<Long> findIdsAfter(String after, Limit limit);
+
+    /**
+     * Obtiene una lista y sus canciones como filas planas en una única consulta, sin hidratar entidades.
+     * @param nameKey La clave del nombre de la lista, calculada con {@link Playlist#nameKey(String)}.
+     * @return Las filas de la lista en orden de canción; vacío si la lista no existe.
+     */
+    @Query("select new demo.playlist_api.domain.repository.PlaylistSongRow("
+            + "p.id, p.version, p.updatedAt, p.name, p.description, s.id, s.titulo, s.artista, s.album, s.anno, s.genero) "
+            + "from Playlist p left join p.songs s "
+            + "where p.nameKey = :nameKey order by s.position, s.id")
+    List<PlaylistSongRow> findRowsByNameKey(String nameKey);
+
+    /**
+     * Obtiene un conjunto de listas y sus canciones como filas planas en una única consulta, sin hidratar entidades.
+     * Se usa tras {@link #findIdsAfter(String, Limit)} para leer una página completa sin problemas de N+1.
+     * @param ids Los identificadores de las listas.
+     * @return Las filas de las listas, ordenadas por nombre de lista y por orden de canción.
+     */
+    @Query("select new demo.playlist_api.domain.repository.PlaylistSongRow("
+            + "p.id, p.version, p.updatedAt, p.name, p.description, s.id, s.titulo, s.artista, s.album, s.anno, s.genero) "
+            + "from Playlist p left join p.songs s "
+            + "where p.id in :ids order by p.name, s.position, s.id")
+    List<PlaylistSongRow> findRowsByIdIn(Collection<Long> ids);
+
+    /**
+     * Recorre todas las listas con sus canciones como filas planas respaldadas por un cursor de base de datos.
+     * Las filas se leen por bloques ({@code fetchSize}) a medida que se consume el flujo, sin materializar
+     * el catálogo ni crear entidades en el contexto de persistencia.
+     * El flujo debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @return Un flujo de filas ordenadas por nombre de lista y por orden de canción.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new demo.playlist_api.domain.repository.PlaylistSongRow("
+            + "p.id, p.version, p.updatedAt, p.name, p.description, s.id, s.titulo, s.artista, s.album, s.anno, s.genero) "
+            + "from Playlist p left join p.songs s "
+            + "order by p.name, s.position, s.id")
+    Stream<PlaylistSongRow> streamAllRows();
 }
@@ -0,0 +1,33 @@
+package demo.playlist_api.domain.repository;
+
+import java.time.Instant;
+
+/**
+ * Proyección plana de una lista de reproducción unida a una de sus canciones, en el orden de la lista.
+ * Las consultas que la devuelven producen una fila por canción (o una sola fila con los campos de canción a
+ * {@code null} si la lista está vacía), que se agrupan en DTOs sin hidratar entidades.
+ * @param playlistId El identificador de la lista.
+ * @param version La versión de la lista.
+ * @param updatedAt La fecha de la última modificación de la lista.
+ * @param name El nombre de la lista.
+ * @param description La descripción de la lista.
+ * @param songId El identificador de la canción, o {@code null} si la lista no tiene canciones.
+ * @param titulo El título de la canción.
+ * @param artista El artista de la canción.
+ * @param album El álbum de la canción.
+ * @param anno El año de lanzamiento de la canción.
+ * @param genero El género musical de la canción.
+ */
+public record PlaylistSongRow(
+        Long playlistId,
+        Long version,
+        Instant updatedAt,
+        String name,
+        String description,
+        Long songId,
+        String titulo,
+        String artista,
+        String album,
+        String anno,
+        String genero
+) {}
@@ -0,0 +1,23 @@
+package demo.playlist_api.domain.repository;
+
+import java.time.Instant;
+
+/**
+ * Proyección ligera con la identidad y la versión de una lista de reproducción.
+ * Permite comprobar si una lista ha cambiado sin cargar sus canciones.
+ * @param id El identificador de la lista.
+ * @param version La versión de control de concurrencia optimista.
+ * @param updatedAt La marca de tiempo de la última actualización.
+ */
+public record PlaylistVersion(Long id, Long version, Instant updatedAt) {
+
+    /**
+     * Indica si esta proyección corresponde a la misma lista y versión que otra.
+     * No compara {@code updatedAt}, que es solo informativo.
+     * @param other La otra proyección.
+     * @return {@code true} si el identificador y la versión coinciden.
+     */
+    public boolean sameVersionAs(PlaylistVersion other) {
+        return other != null && id.equals(other.id) && version.equals(other.version);
+    }
+}
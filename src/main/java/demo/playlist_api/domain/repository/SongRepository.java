@@ -0,0 +1,105 @@
+package demo.playlist_api.domain.repository;
+
+import demo.playlist_api.domain.entity.Song;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Repositorio para la entidad Song, usado para modificar canciones sin cargar la colección completa de su lista.
+ */
+public interface SongRepository extends JpaRepository<Song, Long> {
+
+    /**
+     * Obtiene el género de cada una de las canciones indicadas que pertenecen a la lista dada, para descontarlas
+     * del histograma de géneros de la lista antes de eliminarlas.
+     * @param playlistId El identificador de la lista propietaria.
+     * @param ids Los identificadores de las canciones.
+     * @return Un género por canción encontrada, con repeticiones y {@code null} para las canciones sin género.
+     */
+    @Query("select s.genero from Song s where s.playlist.id = :playlistId and s.id in :ids")
+    List<String> findGenres(Long playlistId, Collection<Long> ids);
+
+    /**
+     * Elimina con una sola sentencia las canciones indicadas, siempre que pertenezcan a la lista dada.
+     * @param playlistId El identificador de la lista propietaria.
+     * @param ids Los identificadores de las canciones a eliminar.
+     * @return El número de canciones eliminadas.
+     */
+    @Modifying
+    @Query("delete from Song s where s.playlist.id = :playlistId and s.id in :ids")
+    int deleteFromPlaylist(Long playlistId, Collection<Long> ids);
+
+    /**
+     * Elimina con una sola sentencia todas las canciones de las listas indicadas, sin cargarlas.
+     * @param playlistIds Los identificadores de las listas.
+     * @return El número de canciones eliminadas.
+     */
+    @Modifying
+    @Query("delete from Song s where s.playlist.id in :playlistIds")
+    int deleteAllFromPlaylists(Collection<Long> playlistIds);
+
+    /**
+     * Obtiene la mayor posición usada en una lista, resuelta sobre el índice {@code (playlist_id, position)}.
+     * @param playlistId El identificador de la lista.
+     * @return La mayor posición, o 0 si la lista no tiene canciones.
+     */
+    @Query("select coalesce(max(s.position), 0) from Song s where s.playlist.id = :playlistId")
+    long findMaxPosition(Long playlistId);
+
+    /**
+     * Obtiene la posición de una canción dentro de una lista.
+     * @param playlistId El identificador de la lista.
+     * @param songId El identificador de la canción.
+     * @return La posición de la canción, o un Optional vacío si no pertenece a la lista.
+     */
+    @Query("select s.position from Song s where s.playlist.id = :playlistId and s.id = :songId")
+    Optional<Long> findPosition(Long playlistId, Long songId);
+
+    /**
+     * Obtiene la primera posición posterior a una dada, sin tener en cuenta una canción concreta.
+     * @param playlistId El identificador de la lista.
+     * @param position La posición de referencia (exclusiva).
+     * @param excludedSongId La canción a ignorar, normalmente la que se está moviendo.
+     * @return La siguiente posición, o {@code null} si no hay canciones posteriores.
+     */
+    @Query("select min(s.position) from Song s where s.playlist.id = :playlistId and s.position > :position and s.id <> :excludedSongId")
+    Long findNextPosition(Long playlistId, long position, Long excludedSongId);
+
+    /**
+     * Cambia la posición de una canción con una sola sentencia UPDATE.
+     * @param playlistId El identificador de la lista.
+     * @param songId El identificador de la canción.
+     * @param position La nueva posición.
+     * @return El número de canciones actualizadas (0 o 1).
+     */
+    @Modifying
+    @Query("update Song s set s.position = :position where s.playlist.id = :playlistId and s.id = :songId")
+    int updatePosition(Long playlistId, Long songId, long position);
+
+    /**
+     * Carga todas las canciones de una lista en su orden actual. Solo se usa para renumerar la lista
+     * cuando se agota el hueco entre dos posiciones consecutivas.
+     * @param playlistId El identificador de la lista.
+     * @return Las canciones de la lista, ordenadas por posición.
+     */
+    List<Song> findByPlaylistIdOrderByPositionAscIdAsc(Long playlistId);
+
+    /**
+     * Recorre todas las canciones de todas las listas como proyecciones planas, leyendo por bloques de un cursor.
+     * El flujo debe consumirse dentro de una transacción y cerrarse al terminar.
+     * @return Un flujo con una fila por canción.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new demo.playlist_api.domain.repository.SongRow("
+            + "s.id, p.id, p.name, s.titulo, s.artista, s.album, s.anno, s.genero) "
+            + "from Song s join s.playlist p")
+    Stream<SongRow> streamAllRows();
+}
@@ -0,0 +1,24 @@
+package demo.playlist_api.domain.repository;
+
+/**
+ * Proyección plana de una canción junto con la lista de reproducción a la que pertenece.
+ * Permite recorrer canciones de todas las listas sin hidratar entidades.
+ * @param id El identificador de la canción.
+ * @param playlistId El identificador de la lista.
+ * @param playlistName El nombre de la lista.
+ * @param titulo El título de la canción.
+ * @param artista El artista de la canción.
+ * @param album El álbum de la canción.
+ * @param anno El año de lanzamiento de la canción.
+ * @param genero El género musical de la canción.
+ */
+public record SongRow(
+        Long id,
+        Long playlistId,
+        String playlistName,
+        String titulo,
+        String artista,
+        String album,
+        String anno,
+        String genero
+) {}
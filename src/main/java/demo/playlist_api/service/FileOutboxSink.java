@@ -0,0 +1,53 @@
+package demo.playlist_api.service;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import demo.playlist_api.web.dto.PlaylistChangeDto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Destino del outbox que añade cada lote de eventos a un fichero NDJSON (un evento por línea) y lo fuerza
+ * a disco antes de darlo por enviado.
+ */
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path file;
+    private final ObjectWriter writer;
+
+    /**
+     * Construye el destino.
+     * @param file El fichero; se crea, junto con su directorio, si no existe.
+     * @param writer El escritor JSON de los eventos.
+     */
+    public FileOutboxSink(Path file, ObjectWriter writer) {
+        this.file = file;
+        this.writer = writer;
+    }
+
+    @Override
+    public synchronized void publish(List<PlaylistChangeDto> events) throws IOException {
+        StringBuilder lines = new StringBuilder(events.size() * 128);
+        for (PlaylistChangeDto event : events) {
+            lines.append(writer.writeValueAsString(event)).append('\n');
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package demo.playlist_api.service;
+
+import demo.playlist_api.web.dto.PlaylistChangeDto;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Destino del outbox que guarda en memoria los últimos eventos enviados, descartando los más antiguos al
+ * superar su capacidad. Sirve para desarrollo y pruebas.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final ArrayDeque<PlaylistChangeDto> events = new ArrayDeque<>();
+    private final int capacity;
+
+    /**
+     * Construye el destino, vacío.
+     * @param capacity El número máximo de eventos que se conservan.
+     */
+    public InMemoryOutboxSink(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<PlaylistChangeDto> batch) {
+        for (PlaylistChangeDto event : batch) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    /**
+     * Obtiene los eventos conservados.
+     * @return Una copia de los eventos, del más antiguo al más reciente.
+     */
+    public synchronized List<PlaylistChangeDto> events() {
+        return List.copyOf(events);
+    }
+}
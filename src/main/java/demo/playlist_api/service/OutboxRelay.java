@@ -0,0 +1,194 @@
+package demo.playlist_api.service;
+
+import demo.playlist_api.config.OutboxProperties;
+import demo.playlist_api.domain.entity.OutboxEvent;
+import demo.playlist_api.domain.repository.OutboxEventRepository;
+import demo.playlist_api.web.dto.PlaylistChangeDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relevo del outbox: envía en segundo plano los eventos que {@link PlaylistService} escribe en la tabla
+ * {@code outbox_events}, de modo que la petición que los produce no espera al destino.
+ * <p>
+ * Cada uno de los {@code playlist.outbox.parallelism} relevos vacía periódicamente su parte del outbox por lotes:
+ * reserva los eventos más antiguos con un token en una transacción corta, los envía a {@link OutboxSink} fuera de
+ * ella y los elimina en otra transacción. Si el envío falla, libera la reserva y el lote se reintenta en el siguiente
+ * vaciado; si la instancia se detiene entretanto, la reserva caduca. Los eventos de una lista van siempre al mismo
+ * relevo, en orden de identificador: cada relevo se encarga de un rango contiguo de las {@link OutboxEvent#SHARDS}
+ * particiones.
+ * <p>
+ * Publica {@code playlist.outbox.published}, {@code playlist.outbox.failures}, {@code playlist.outbox.lag} (tiempo
+ * desde que se produjo cada evento hasta que se envió) y, si está habilitado, {@code playlist.outbox.pending} y
+ * {@code playlist.outbox.oldest.age} (antigüedad en segundos del evento pendiente más antiguo).
+ */
+@Component
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository repository;
+    private final OutboxSink sink;
+    private final OutboxProperties properties;
+    private final TransactionTemplate tx;
+    private final Counter published;
+    private final Counter failures;
+    private final Timer lag;
+    private volatile ScheduledExecutorService executor;
+
+    /**
+     * Construye el relevo, detenido hasta que arranque el contexto.
+     * @param repository El repositorio de los eventos pendientes.
+     * @param sink El destino de los eventos.
+     * @param properties El tamaño de lote, la espera entre vaciados y el número de relevos.
+     * @param transactionManager El gestor de transacciones, usado para reservar y eliminar los eventos.
+     * @param registry El registro de métricas.
+     */
+    public OutboxRelay(OutboxEventRepository repository, OutboxSink sink, OutboxProperties properties,
+                       PlatformTransactionManager transactionManager, MeterRegistry registry) {
+        this.repository = repository;
+        this.sink = sink;
+        this.properties = properties;
+        if (properties.parallelism() < 1 || properties.parallelism() > OutboxEvent.SHARDS) {
+            throw new IllegalArgumentException("playlist.outbox.parallelism debe estar entre 1 y " + OutboxEvent.SHARDS);
+        }
+        this.tx = new TransactionTemplate(transactionManager);
+        this.published = Counter.builder("playlist.outbox.published")
+                .description("Eventos del outbox enviados a su destino")
+                .register(registry);
+        this.failures = Counter.builder("playlist.outbox.failures")
+                .description("Lotes del outbox que no se han podido enviar")
+                .register(registry);
+        this.lag = Timer.builder("playlist.outbox.lag")
+                .description("Tiempo desde que se produce un evento del outbox hasta que se envía")
+                .publishPercentileHistogram()
+                .register(registry);
+        // Cada lectura de estos indicadores consulta la tabla; sin relevo no hay nada que vigilar
+        if (properties.enabled()) {
+            Gauge.builder("playlist.outbox.pending", repository, OutboxEventRepository::count)
+                    .description("Eventos pendientes en el outbox")
+                    .register(registry);
+            Gauge.builder("playlist.outbox.oldest.age", repository, OutboxRelay::oldestAgeSeconds)
+                    .description("Antigüedad en segundos del evento pendiente más antiguo del outbox")
+                    .baseUnit("seconds")
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        int workers = properties.parallelism();
+        long interval = properties.pollInterval().toMillis();
+        executor = Executors.newScheduledThreadPool(workers, Thread.ofPlatform().name("outbox-relay-", 0).daemon().factory());
+        for (int worker = 0; worker < workers; worker++) {
+            int id = worker;
+            executor.scheduleWithFixedDelay(() -> drain(id), interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = executor;
+        if (current == null) {
+            return;
+        }
+        executor = null;
+        current.shutdown();
+        try {
+            current.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    /**
+     * Envía todos los eventos pendientes de un reparto, lote a lote, hasta que un lote salga incompleto.
+     * @param worker El reparto, entre 0 y {@code parallelism - 1}.
+     */
+    void drain(int worker) {
+        try {
+            while (relayBatch(worker) == properties.batchSize()) {
+                // Quedan más eventos: se sigue sin esperar al siguiente vaciado
+            }
+        } catch (RuntimeException e) {
+            log.warn("Error al vaciar el outbox (reparto {})", worker, e);
+        }
+    }
+
+    /**
+     * Reserva, envía y elimina un lote de eventos de un reparto.
+     * @param worker El reparto, entre 0 y {@code parallelism - 1}.
+     * @return El número de eventos enviados; 0 si no había eventos libres o el envío falló.
+     */
+    public int relayBatch(int worker) {
+        String token = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        List<OutboxEvent> events = tx.execute(status -> {
+            int workers = properties.parallelism();
+            int firstShard = worker * OutboxEvent.SHARDS / workers;
+            int lastShard = (worker + 1) * OutboxEvent.SHARDS / workers - 1;
+            List<Long> ids = repository.findClaimable(firstShard, lastShard, now, Limit.of(properties.batchSize()));
+            if (ids.isEmpty() || repository.claim(ids, token, now.plus(properties.claimTimeout()), now) == 0) {
+                return List.of();
+            }
+            return repository.findByClaimTokenOrderById(token);
+        });
+        if (events.isEmpty()) {
+            return 0;
+        }
+        try {
+            sink.publish(events.stream().map(OutboxRelay::toMessage).toList());
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("No se ha podido enviar un lote de {} eventos del outbox; se reintentará", events.size(), e);
+            tx.executeWithoutResult(status -> repository.release(token));
+            return 0;
+        }
+        Instant sent = Instant.now();
+        events.forEach(event -> lag.record(Duration.between(event.getCreatedAt(), sent)));
+        List<Long> ids = events.stream().map(OutboxEvent::getId).toList();
+        tx.executeWithoutResult(status -> repository.deleteClaimed(ids, token));
+        published.increment(events.size());
+        return events.size();
+    }
+
+    /**
+     * Convierte un evento del outbox en el mensaje que recibe el destino.
+     * @param event El evento.
+     * @return El mensaje, con el identificador del evento como secuencia.
+     */
+    private static PlaylistChangeDto toMessage(OutboxEvent event) {
+        return new PlaylistChangeDto(event.getId(), event.getType(), event.getPlaylistName(),
+                event.getPlaylistVersion(), event.getCreatedAt());
+    }
+
+    private static double oldestAgeSeconds(OutboxEventRepository repository) {
+        Instant oldest = repository.findOldestCreatedAt();
+        return oldest == null ? 0 : Duration.between(oldest, Instant.now()).toMillis() / 1000.0;
+    }
+}
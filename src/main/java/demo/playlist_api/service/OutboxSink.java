@@ -0,0 +1,22 @@
+package demo.playlist_api.service;
+
+import demo.playlist_api.web.dto.PlaylistChangeDto;
+
+import java.util.List;
+
+/**
+ * Destino al que {@link OutboxRelay} envía los eventos del outbox (un fichero, una cola de mensajería...).
+ * Para usar otro destino basta con declarar un bean de este tipo, que sustituye al configurado con
+ * {@code playlist.outbox.sink}. Las implementaciones deben admitir llamadas concurrentes si
+ * {@code playlist.outbox.parallelism} es mayor que 1.
+ */
+public interface OutboxSink {
+
+    /**
+     * Envía un lote de eventos, en orden. Si falla, el lote completo se volverá a enviar más tarde, de modo que
+     * los destinos reciben cada evento al menos una vez y deben tolerar duplicados (la secuencia lo identifica).
+     * @param events Los eventos; la secuencia de cada uno es el identificador de su fila en el outbox.
+     * @throws Exception si el lote no se ha podido enviar.
+     */
+    void publish(List<PlaylistChangeDto> events) throws Exception;
+}
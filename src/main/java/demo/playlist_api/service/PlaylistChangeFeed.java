@@ -0,0 +1,194 @@
+package demo.playlist_api.service;
+
+import demo.playlist_api.config.ChangeFeedProperties;
+import demo.playlist_api.web.dto.PlaylistChangeDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Flujo de los cambios confirmados de las listas de reproducción, para que otros servicios se sincronicen
+ * de forma incremental en lugar de volver a leer todo el catálogo.
+ * <p>
+ * Los cambios se guardan en un búfer circular acotado y sin cerrojos: cada publicación reserva su número de
+ * secuencia con un incremento atómico y escribe el cambio en la posición correspondiente, sobrescribiendo el
+ * cambio de una vuelta anterior. Cada suscriptor solo guarda su cursor y lee los cambios bajo demanda, por lo que
+ * un cliente lento no acumula memoria: si se retrasa más que la capacidad del búfer, sus cambios pendientes ya se
+ * han sobrescrito y su flujo termina con {@link OverrunException}.
+ * <p>
+ * Las secuencias empiezan en el instante de arranque en microsegundos, de modo que las de un arranque posterior
+ * son siempre mayores y un cursor de un arranque anterior se detecta como perdido en lugar de confundirse con
+ * cambios nuevos. {@link PlaylistService} publica cada cambio tras confirmar su transacción.
+ * <p>
+ * Los avisos a los suscriptores solo indican que hay cambios nuevos, así que publicar nunca espera ni falla: si un
+ * aviso se pierde, el suscriptor lee ese cambio con su cursor al recibir el siguiente. Para no perder el último
+ * aviso cuando publican varios hilos a la vez, solo uno emite y repite la emisión mientras otros hayan publicado.
+ * <p>
+ * Publica {@code playlist.changes.published}, {@code playlist.changes.overruns} y
+ * {@code playlist.changes.subscribers}.
+ */
+@Component
+public class PlaylistChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(PlaylistChangeFeed.class);
+
+    private final AtomicReferenceArray<PlaylistChangeDto> slots;
+    private final int mask;
+    private final long first;
+    private final AtomicLong last;
+    private final Sinks.Many<Long> signals = Sinks.many().multicast().directBestEffort();
+    private final AtomicInteger pendingSignals = new AtomicInteger();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter published;
+    private final Counter overruns;
+
+    /**
+     * Construye el flujo de cambios, vacío.
+     * @param properties La capacidad del búfer.
+     * @param registry El registro de métricas.
+     */
+    public PlaylistChangeFeed(ChangeFeedProperties properties, MeterRegistry registry) {
+        int capacity = Integer.highestOneBit(Math.max(2, properties.capacity()) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.first = System.currentTimeMillis() * 1000;
+        this.last = new AtomicLong(first - 1);
+        this.published = Counter.builder("playlist.changes.published")
+                .description("Cambios de listas publicados en el flujo de cambios")
+                .register(registry);
+        this.overruns = Counter.builder("playlist.changes.overruns")
+                .description("Suscriptores desconectados por quedarse atrás en el flujo de cambios")
+                .register(registry);
+        Gauge.builder("playlist.changes.subscribers", subscribers, AtomicInteger::get)
+                .description("Suscriptores conectados al flujo de cambios")
+                .register(registry);
+    }
+
+    /**
+     * Publica un cambio. Debe llamarse después de confirmar la transacción que lo produjo, por lo que no bloquea
+     * ni lanza excepciones al avisar a los suscriptores.
+     * @param tipo El tipo de cambio.
+     * @param nombre El nombre de la lista.
+     * @param version La versión de la lista tras el cambio, o la eliminada en los borrados.
+     */
+    public void publish(PlaylistChangeDto.Tipo tipo, String nombre, long version) {
+        long sequence = last.incrementAndGet();
+        slots.set(index(sequence), new PlaylistChangeDto(sequence, tipo, nombre, version, Instant.now()));
+        published.increment();
+        signal();
+    }
+
+    /**
+     * Avisa a los suscriptores de que hay cambios nuevos. Si otro hilo está emitiendo, solo anota el aviso
+     * pendiente y ese hilo vuelve a emitir con la última secuencia, por lo que las emisiones nunca son concurrentes.
+     */
+    private void signal() {
+        if (pendingSignals.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            try {
+                Sinks.EmitResult result = signals.tryEmitNext(last.get());
+                if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+                    log.debug("No se ha podido avisar a los suscriptores del flujo de cambios: {}", result);
+                }
+            } catch (RuntimeException e) {
+                log.debug("No se ha podido avisar a los suscriptores del flujo de cambios", e);
+            }
+            missed = pendingSignals.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Obtiene la secuencia del último cambio publicado, desde la que se suscriben los clientes que solo quieren
+     * los cambios a partir de ahora.
+     * @return La secuencia del último cambio.
+     */
+    public long lastSequence() {
+        return last.get();
+    }
+
+    /**
+     * Transmite los cambios posteriores a una secuencia, primero los que siguen en el búfer y después los nuevos
+     * a medida que se publican. El flujo no termina salvo que el suscriptor se quede atrás.
+     * @param after La secuencia del último cambio recibido (exclusiva).
+     * @return Los cambios en orden de secuencia; termina con {@link OverrunException} si los cambios
+     *         siguientes a {@code after} ya no están en el búfer o {@code after} no es de este arranque.
+     */
+    public Flux<PlaylistChangeDto> changes(long after) {
+        return Flux.defer(() -> {
+            if (after < first - 1 || after > last.get()) {
+                overruns.increment();
+                return Flux.error(new OverrunException(after));
+            }
+            AtomicLong cursor = new AtomicLong(after);
+            // Se suscribe a los avisos antes de la primera lectura para no perder los cambios publicados entretanto
+            return Flux.merge(signals.asFlux(), Mono.just(after))
+                    .onBackpressureLatest()
+                    .concatMap(signal -> Flux.<PlaylistChangeDto>generate(sink -> {
+                        PlaylistChangeDto change = next(cursor.get());
+                        if (change == null) {
+                            sink.complete();
+                        } else {
+                            cursor.set(change.secuencia());
+                            sink.next(change);
+                        }
+                    }), 1)
+                    .doOnError(OverrunException.class, e -> overruns.increment())
+                    .doOnSubscribe(s -> subscribers.incrementAndGet())
+                    .doFinally(s -> subscribers.decrementAndGet());
+        });
+    }
+
+    /**
+     * Lee el cambio siguiente a una secuencia.
+     * @param after La secuencia del último cambio leído.
+     * @return El cambio siguiente, o {@code null} si todavía no se ha publicado.
+     * @throws OverrunException si el cambio siguiente ya se ha sobrescrito.
+     */
+    private PlaylistChangeDto next(long after) {
+        long sequence = after + 1;
+        if (sequence > last.get()) {
+            return null;
+        }
+        PlaylistChangeDto change = slots.get(index(sequence));
+        if (change == null || change.secuencia() < sequence) {
+            return null; // reservado pero todavía sin escribir
+        }
+        if (change.secuencia() > sequence) {
+            throw new OverrunException(after);
+        }
+        return change;
+    }
+
+    private int index(long sequence) {
+        return (int) sequence & mask;
+    }
+
+    /**
+     * Indica que un suscriptor ha pedido cambios que ya no están en el búfer: debe volver a leer las listas
+     * completas y suscribirse de nuevo sin secuencia.
+     */
+    public static class OverrunException extends RuntimeException {
+
+        /**
+         * Crea la excepción.
+         * @param after La secuencia desde la que no se puede continuar.
+         */
+        public OverrunException(long after) {
+            super("Los cambios posteriores a la secuencia " + after + " ya no están disponibles");
+        }
+    }
+}
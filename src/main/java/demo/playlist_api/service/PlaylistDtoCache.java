@@ -0,0 +1,175 @@
+package demo.playlist_api.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import demo.playlist_api.config.PlaylistCacheProperties;
+import demo.playlist_api.domain.entity.Playlist;
+import demo.playlist_api.domain.repository.PlaylistVersion;
+import demo.playlist_api.web.dto.CacheStatsDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Caché de lectura de listas de reproducción ya mapeadas a {@link demo.playlist_api.web.dto.PlaylistDto},
+ * indexada por la clave natural del nombre ({@link Playlist#nameKey(String)}). Cada entrada conserva la versión de la entidad de la que se obtuvo.
+ * Está acotada por tamaño y por tiempo de vida, y registra estadísticas de aciertos, fallos y desalojos,
+ * que también se publican como métricas {@code cache.*} con la etiqueta {@code cache=playlists}.
+ * <p>
+ * Las entradas son cargas en curso o terminadas ({@link CompletableFuture}): quien no encuentra la lista registra su
+ * carga con un {@code putIfAbsent} y la ejecuta en su propio hilo, fuera de los cerrojos del mapa, y las peticiones
+ * concurrentes del mismo nombre esperan esa carga. Así ningún hilo virtual consulta la base de datos ni espera
+ * una conexión dentro de un bloque {@code synchronized}, que lo anclaría a su hilo portador.
+ */
+@Component
+public class PlaylistDtoCache {
+
+    private final AsyncCache<String, VersionedPlaylist> cache;
+
+    /**
+     * Construye la caché a partir de su configuración.
+     * @param properties El tamaño máximo y el tiempo de vida de las entradas.
+     * @param registry El registro de métricas en el que se publican las estadísticas de la caché.
+     */
+    public PlaylistDtoCache(PlaylistCacheProperties properties, MeterRegistry registry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "playlists");
+    }
+
+    /**
+     * Devuelve la lista con el nombre indicado, cargándola con {@code loader} si no está en caché.
+     * Las cargas concurrentes de un mismo nombre se agrupan en una sola; las excepciones del cargador
+     * se propagan y no se almacena nada.
+     * @param name El nombre de la lista.
+     * @param loader La función que carga la lista a partir de su nombre.
+     * @return La lista de reproducción.
+     */
+    public VersionedPlaylist get(String name, Function<String, VersionedPlaylist> loader) {
+        return join(lookup(key(name), name, loader));
+    }
+
+    /**
+     * Devuelve la lista con el nombre indicado siempre que la entrada en caché corresponda a la versión esperada.
+     * Si la entrada es de otra versión se descarta y se vuelve a cargar con {@code loader}.
+     * @param name El nombre de la lista.
+     * @param expected La versión vigente de la lista según la base de datos.
+     * @param loader La función que carga la lista a partir de su nombre.
+     * @return La lista de reproducción.
+     */
+    public VersionedPlaylist get(String name, PlaylistVersion expected, Function<String, VersionedPlaylist> loader) {
+        String key = key(name);
+        CompletableFuture<VersionedPlaylist> entry = lookup(key, name, loader);
+        VersionedPlaylist cached = join(entry);
+        if (cached.version().sameVersionAs(expected)) {
+            return cached;
+        }
+        VersionedPlaylist fresh = loader.apply(name);
+        cache.asMap().replace(key, entry, CompletableFuture.completedFuture(fresh));
+        return fresh;
+    }
+
+    /**
+     * Obtiene la entrada de una clave o, si no existe, registra una carga nueva y la ejecuta en el hilo actual.
+     * Si la carga falla (por ejemplo, porque la lista no existe), la entrada se retira del mapa y se completa sin
+     * valor, guardando la excepción para quienes la esperaban: una entrada completada con excepción haría que
+     * Caffeine registrase un aviso con la traza en cada 404.
+     * Si la entrada se invalida mientras se carga, el resultado se devuelve a quien lo pidió pero no se guarda.
+     * @param key La clave de la lista.
+     * @param name El nombre de la lista, tal como se pasa al cargador.
+     * @param loader La función que carga la lista a partir de su nombre.
+     * @return La entrada, ya completada si la ha cargado este hilo.
+     */
+    private CompletableFuture<VersionedPlaylist> lookup(String key, String name,
+                                                        Function<String, VersionedPlaylist> loader) {
+        CompletableFuture<VersionedPlaylist> entry = cache.getIfPresent(key);
+        if (entry != null) {
+            return entry;
+        }
+        Loading loading = new Loading();
+        entry = cache.asMap().putIfAbsent(key, loading);
+        if (entry != null) {
+            return entry;
+        }
+        try {
+            loading.complete(loader.apply(name));
+        } catch (RuntimeException | Error e) {
+            cache.asMap().remove(key, loading);
+            loading.fail(e);
+            throw e;
+        }
+        return loading;
+    }
+
+    /**
+     * Espera el resultado de una entrada, propagando tal cual la excepción de su carga.
+     * @param entry La entrada.
+     * @return La lista de reproducción.
+     */
+    private static VersionedPlaylist join(CompletableFuture<VersionedPlaylist> entry) {
+        VersionedPlaylist playlist = entry.join();
+        if (playlist == null) {
+            Throwable failure = ((Loading) entry).failure;
+            if (failure instanceof Error error) {
+                throw error;
+            }
+            throw (RuntimeException) failure;
+        }
+        return playlist;
+    }
+
+    /**
+     * Invalida la entrada de una lista ahora y de nuevo cuando se confirme la transacción actual,
+     * para que una lectura concurrente no vuelva a guardar el estado anterior al cambio.
+     * @param name El nombre de la lista modificada.
+     */
+    public void invalidate(String name) {
+        String key = key(name);
+        cache.synchronous().invalidate(key);
+        TransactionCallbacks.afterCommit(() -> cache.synchronous().invalidate(key));
+    }
+
+    /**
+     * Devuelve las estadísticas acumuladas de la caché.
+     * @return Las estadísticas de la caché.
+     */
+    public CacheStatsDto stats() {
+        CacheStats stats = cache.synchronous().stats();
+        return new CacheStatsDto(cache.synchronous().estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate());
+    }
+
+    /**
+     * Carga en curso de una entrada. Si falla se completa con {@code null}, que Caffeine trata como ausencia sin
+     * registrar nada, y conserva la excepción para relanzarla a quienes la esperaban.
+     */
+    private static final class Loading extends CompletableFuture<VersionedPlaylist> {
+
+        private volatile Throwable failure;
+
+        /**
+         * Termina la carga sin valor, con la excepción que la hizo fallar.
+         * @param failure La excepción del cargador.
+         */
+        void fail(Throwable failure) {
+            this.failure = failure;
+            complete(null);
+        }
+    }
+
+    /**
+     * Calcula la clave de caché de un nombre de lista.
+     * @param name El nombre de la lista.
+     * @return La clave natural del nombre, la misma que usa la base de datos.
+     */
+    private static String key(String name) {
+        return Playlist.nameKey(name);
+    }
+}
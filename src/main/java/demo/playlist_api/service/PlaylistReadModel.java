@@ -0,0 +1,375 @@
+package demo.playlist_api.service;
+
+import demo.playlist_api.domain.entity.Playlist;
+import demo.playlist_api.domain.repository.PlaylistRepository;
+import demo.playlist_api.domain.repository.PlaylistSongRow;
+import demo.playlist_api.domain.repository.PlaylistVersion;
+import demo.playlist_api.web.dto.PlaylistDto;
+import demo.playlist_api.web.dto.ReadModelCheckDto;
+import demo.playlist_api.web.mapper.PlaylistMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Réplica de lectura en memoria de todo el catálogo de listas de reproducción, opcional
+ * ({@code playlist.read-model.enabled}).
+ * <p>
+ * Guarda una instantánea inmutable con cada lista mapeada a DTO junto con su versión, indexada por la clave natural
+ * del nombre y ordenada por nombre para paginar. Los lectores solo leen una referencia volátil, sin cerrojos ni
+ * transacciones; cada escritura confirmada publica una instantánea nueva copiando la anterior (copia en escritura),
+ * de modo que el coste de escribir crece con el tamaño del catálogo y el de leer no. Las escrituras de la réplica
+ * se serializan entre sí con un {@link ReentrantLock}, que no ancla los hilos virtuales que esperan, y nunca
+ * consultan la base de datos mientras lo tienen.
+ * <p>
+ * Se construye desde la base de datos al arrancar y {@link PlaylistService} la actualiza tras confirmar cada
+ * escritura con las listas ya leídas dentro de la propia transacción. Una lista solo se reemplaza por una versión
+ * igual o posterior de la misma lista, para que las confirmaciones concurrentes no la hagan retroceder, y las
+ * listas eliminadas dejan una marca durante {@link #TOMBSTONE_TTL} para que una actualización confirmada antes del
+ * borrado, pero aplicada después, no las vuelva a añadir. {@link #check()} la compara con la base de datos.
+ */
+@Component
+public class PlaylistReadModel {
+
+    private static final Logger log = LoggerFactory.getLogger(PlaylistReadModel.class);
+
+    private static final Comparator<VersionedPlaylist> BY_NAME = Comparator.comparing(p -> p.playlist().nombre());
+
+    /** Tiempo durante el que se recuerda una lista eliminada; basta con que cubra el retraso de las confirmaciones. */
+    static final Duration TOMBSTONE_TTL = Duration.ofMinutes(5);
+
+    private final PlaylistRepository repository;
+    private final TransactionTemplate readOnlyTx;
+    private final boolean enabled;
+    private volatile Snapshot snapshot;
+    /** Serializa las escrituras de la instantánea; protege también {@link #tombstones} y {@link #pending}. */
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Serializa las reconstrucciones, que leen la base de datos sin tener {@link #lock}. */
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    /** Versión eliminada y caducidad (en {@link System#nanoTime()}) de cada lista eliminada, en orden de borrado. */
+    private final Map<Long, Tombstone> tombstones = new LinkedHashMap<>();
+    /** Actualizaciones recibidas durante una reconstrucción, para aplicarlas a la instantánea nueva; {@code null} fuera de ella. */
+    private List<Update> pending;
+
+    /**
+     * Construye la réplica, vacía hasta que se construya.
+     * @param repository El repositorio del que se leen las listas.
+     * @param transactionManager El gestor de transacciones, usado para leer las listas en una transacción de lectura.
+     * @param registry El registro de métricas en el que se publica el número de listas de la réplica.
+     * @param enabled Si es {@code false}, la réplica no se construye y todas las lecturas van a la base de datos.
+     */
+    public PlaylistReadModel(PlaylistRepository repository, PlatformTransactionManager transactionManager,
+                             MeterRegistry registry, @Value("${playlist.read-model.enabled:false}") boolean enabled) {
+        this.repository = repository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.enabled = enabled;
+        Gauge.builder("playlist.read-model.size", this, m -> m.snapshot == null ? 0 : m.snapshot.byKey.size())
+                .description("Listas de reproducción en la réplica de lectura en memoria")
+                .register(registry);
+    }
+
+    /**
+     * Indica si la réplica está habilitada, aunque todavía no se haya construido.
+     * @return {@code true} si la réplica está habilitada.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Construye la réplica completa a partir de todas las listas de la base de datos.
+     * Se ejecuta al arrancar la aplicación. La instantánea nueva se lee sin bloquear las actualizaciones: mientras
+     * dura, se siguen aplicando a la instantánea anterior (o, al arrancar, las lecturas van a la base de datos) y se
+     * guardan para repetirlas sobre la nueva antes de publicarla.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            lock.lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.unlock();
+            }
+            Snapshot built = null;
+            try {
+                built = load();
+            } finally {
+                lock.lock();
+                try {
+                    if (built != null) {
+                        for (Update update : pending) {
+                            built = apply(built, update.puts(), update.removed());
+                        }
+                        snapshot = built;
+                    }
+                    pending = null;
+                } finally {
+                    lock.unlock();
+                }
+            }
+            log.info("Réplica de lectura construida: {} listas en {} ms", built.byKey.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Lee todas las listas de la base de datos en una instantánea nueva.
+     * @return La instantánea.
+     */
+    private Snapshot load() {
+        List<VersionedPlaylist> playlists = new ArrayList<>();
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<PlaylistSongRow> rows = repository.streamAllRows()) {
+                fold(rows.iterator(), playlists);
+            }
+        });
+        Map<String, VersionedPlaylist> byKey = HashMap.newHashMap(playlists.size());
+        playlists.forEach(p -> byKey.put(Playlist.nameKey(p.playlist().nombre()), p));
+        playlists.sort(BY_NAME);
+        return new Snapshot(byKey, playlists);
+    }
+
+    /**
+     * Busca una lista por su nombre, sin distinguir mayúsculas.
+     * @param name El nombre de la lista.
+     * @return La lista y su versión, o {@code null} si no está en la réplica o la réplica no está construida.
+     */
+    public VersionedPlaylist get(String name) {
+        Snapshot current = snapshot;
+        return current == null ? null : current.byKey.get(Playlist.nameKey(name));
+    }
+
+    /**
+     * Recupera una página de listas ordenadas por nombre, con la misma semántica que la paginación por clave
+     * de la base de datos. La página es una vista de la instantánea, sin copiar las listas.
+     * @param after El nombre de la última lista de la página anterior (exclusivo), o {@code null} para la primera.
+     * @param limit El número máximo de listas a devolver.
+     * @return Las listas de la página, o {@code null} si la réplica no está construida.
+     */
+    public List<PlaylistDto> page(String after, int limit) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        int from = after == null ? 0 : current.firstAfter(after);
+        int to = (int) Math.min((long) from + limit, current.dtosByName.size());
+        return current.dtosByName.subList(from, to);
+    }
+
+    /**
+     * Añade o reemplaza listas en la réplica. Una lista solo se reemplaza por una versión igual o posterior,
+     * y una lista eliminada no se vuelve a añadir con la versión eliminada ni con una anterior.
+     * @param playlists Las listas, tal como se leyeron en la transacción que las modificó.
+     */
+    public void putAll(Collection<VersionedPlaylist> playlists) {
+        update(playlists, Set.of());
+    }
+
+    /**
+     * Elimina listas de la réplica y las recuerda como eliminadas. Las listas que no estén en la réplica se ignoran.
+     * @param versions Las versiones eliminadas de las listas.
+     */
+    public void removeAll(Collection<PlaylistVersion> versions) {
+        update(List.of(), versions);
+    }
+
+    /**
+     * Compara la réplica con la base de datos por identificador y versión de cada lista.
+     * Con escrituras concurrentes puede informar de discrepancias transitorias.
+     * @return El resultado de la comparación.
+     */
+    public ReadModelCheckDto check() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return new ReadModelCheckDto(enabled, false, 0, 0, List.of(), List.of(), List.of());
+        }
+        Map<Long, Long> modelVersions = HashMap.newHashMap(current.byKey.size());
+        current.byKey.values().forEach(p -> modelVersions.put(p.version().id(), p.version().version()));
+        List<PlaylistVersion> database = readOnlyTx.execute(status -> repository.findAllVersions());
+
+        List<Long> missing = new ArrayList<>();
+        List<Long> stale = new ArrayList<>();
+        Set<Long> seen = HashSet.newHashSet(database.size());
+        for (PlaylistVersion version : database) {
+            seen.add(version.id());
+            Long modelVersion = modelVersions.get(version.id());
+            if (modelVersion == null) {
+                missing.add(version.id());
+            } else if (!modelVersion.equals(version.version())) {
+                stale.add(version.id());
+            }
+        }
+        List<Long> extra = modelVersions.keySet().stream().filter(id -> !seen.contains(id)).sorted().toList();
+        return new ReadModelCheckDto(enabled, true, database.size(), modelVersions.size(), missing, stale, extra);
+    }
+
+    /**
+     * Publica una instantánea nueva con las listas añadidas o reemplazadas y las eliminadas.
+     * Durante una reconstrucción, además guarda la actualización para repetirla sobre la instantánea nueva.
+     * @param puts Las listas a añadir o reemplazar.
+     * @param removed Las versiones eliminadas de las listas a eliminar.
+     */
+    private void update(Collection<VersionedPlaylist> puts, Collection<PlaylistVersion> removed) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            Iterator<Tombstone> expired = tombstones.values().iterator();
+            while (expired.hasNext() && expired.next().expiresAt() - now <= 0) {
+                expired.remove();
+            }
+            removed.forEach(v -> tombstones.put(v.id(), new Tombstone(v.version(), now + TOMBSTONE_TTL.toNanos())));
+            if (puts.isEmpty() && removed.isEmpty()) {
+                return;
+            }
+            if (pending != null) {
+                pending.add(new Update(List.copyOf(puts), List.copyOf(removed)));
+            }
+            Snapshot current = snapshot;
+            if (current != null) {
+                snapshot = apply(current, puts, removed);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Calcula la instantánea que resulta de aplicar una actualización a otra. Debe llamarse con {@link #lock}.
+     * @param current La instantánea de partida, que no se modifica.
+     * @param puts Las listas a añadir o reemplazar.
+     * @param removed Las versiones eliminadas de las listas a eliminar.
+     * @return La instantánea nueva.
+     */
+    private Snapshot apply(Snapshot current, Collection<VersionedPlaylist> puts, Collection<PlaylistVersion> removed) {
+        Map<String, VersionedPlaylist> byKey = new HashMap<>(current.byKey);
+        List<VersionedPlaylist> byName = new ArrayList<>(current.byName);
+        if (!removed.isEmpty()) {
+            Set<Long> ids = HashSet.newHashSet(removed.size());
+            removed.forEach(v -> ids.add(v.id()));
+            byKey.values().removeIf(p -> ids.contains(p.version().id()));
+            byName.removeIf(p -> ids.contains(p.version().id()));
+        }
+        for (VersionedPlaylist playlist : puts) {
+            Tombstone tombstone = tombstones.get(playlist.version().id());
+            if (tombstone != null && playlist.version().version() <= tombstone.version()) {
+                continue;
+            }
+            String key = Playlist.nameKey(playlist.playlist().nombre());
+            VersionedPlaylist previous = byKey.get(key);
+            if (previous != null) {
+                if (previous.version().id().equals(playlist.version().id())
+                        && previous.version().version() > playlist.version().version()) {
+                    continue;
+                }
+                byName.remove(Collections.binarySearch(byName, previous, BY_NAME));
+            }
+            byKey.put(key, playlist);
+            int index = Collections.binarySearch(byName, playlist, BY_NAME);
+            byName.add(index < 0 ? -index - 1 : index, playlist);
+        }
+        return new Snapshot(byKey, byName);
+    }
+
+    /**
+     * Agrupa las filas planas de varias listas en listas mapeadas con su versión.
+     * @param rows Las filas, agrupadas por lista y en orden de canción.
+     * @param sink La colección a la que se añade cada lista.
+     */
+    private static void fold(Iterator<PlaylistSongRow> rows, Collection<VersionedPlaylist> sink) {
+        List<PlaylistSongRow> current = new ArrayList<>();
+        while (rows.hasNext()) {
+            PlaylistSongRow row = rows.next();
+            if (!current.isEmpty() && !current.get(0).playlistId().equals(row.playlistId())) {
+                sink.add(toVersioned(current));
+                current.clear();
+            }
+            current.add(row);
+        }
+        if (!current.isEmpty()) {
+            sink.add(toVersioned(current));
+        }
+    }
+
+    private static VersionedPlaylist toVersioned(List<PlaylistSongRow> rows) {
+        PlaylistSongRow head = rows.get(0);
+        return new VersionedPlaylist(PlaylistMapper.toDto(rows),
+                new PlaylistVersion(head.playlistId(), head.version(), head.updatedAt()));
+    }
+
+    /**
+     * Actualización recibida durante una reconstrucción.
+     * @param puts Las listas añadidas o reemplazadas.
+     * @param removed Las versiones eliminadas de las listas eliminadas.
+     */
+    private record Update(List<VersionedPlaylist> puts, List<PlaylistVersion> removed) {}
+
+    /**
+     * Marca de una lista eliminada.
+     * @param version La versión con la que se eliminó.
+     * @param expiresAt El instante, en {@link System#nanoTime()}, a partir del cual se olvida.
+     */
+    private record Tombstone(long version, long expiresAt) {}
+
+    /**
+     * Instantánea inmutable de la réplica.
+     * @param byKey Las listas por clave natural del nombre.
+     * @param byName Las listas ordenadas por nombre.
+     * @param dtosByName Los DTO de {@code byName}, en el mismo orden, para servir páginas sin copiarlas.
+     */
+    private record Snapshot(Map<String, VersionedPlaylist> byKey, List<VersionedPlaylist> byName,
+                            List<PlaylistDto> dtosByName) {
+
+        Snapshot(Map<String, VersionedPlaylist> byKey, List<VersionedPlaylist> byName) {
+            this(byKey, List.copyOf(byName), byName.stream().map(VersionedPlaylist::playlist).toList());
+        }
+
+        /**
+         * Busca la posición de la primera lista cuyo nombre es estrictamente posterior al indicado.
+         * @param after El nombre de referencia.
+         * @return La posición, o el tamaño de la instantánea si no hay ninguna.
+         */
+        int firstAfter(String after) {
+            int low = 0, high = dtosByName.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (dtosByName.get(mid).nombre().compareTo(after) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
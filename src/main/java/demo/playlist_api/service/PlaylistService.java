@@ -1,37 +1,119 @@
 package demo.playlist_api.service;
 
+import demo.playlist_api.config.OutboxProperties;
+import demo.playlist_api.domain.entity.OutboxEvent;
 import demo.playlist_api.domain.entity.Playlist;
+import demo.playlist_api.domain.entity.Song;
+import demo.playlist_api.domain.repository.NamedPlaylistVersion;
 import demo.playlist_api.domain.repository.PlaylistRepository;
+import demo.playlist_api.domain.repository.PlaylistSongRow;
+import demo.playlist_api.domain.repository.PlaylistVersion;
+import demo.playlist_api.domain.repository.SongRepository;
+import demo.playlist_api.web.dto.BulkImportResultDto;
+import demo.playlist_api.web.dto.BulkItemResultDto;
+import demo.playlist_api.web.dto.PlaylistChangeDto;
 import demo.playlist_api.web.dto.PlaylistDto;
+import demo.playlist_api.web.dto.PlaylistSummaryDto;
+import demo.playlist_api.web.dto.SongDto;
+import demo.playlist_api.web.dto.SongPatchDto;
 import demo.playlist_api.web.exception.AlreadyExistsException;
 import demo.playlist_api.web.exception.NotFoundException;
+import demo.playlist_api.web.exception.PreconditionFailedException;
 import demo.playlist_api.web.mapper.PlaylistMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Proporciona la lógica de negocio para gestionar las listas de reproducción.
  * Se encarga de la interacción con el repositorio de datos y la validación de la lógica de negocio.
+ * Cada método público se mide en el temporizador {@code playlist.service}, etiquetado con el nombre del método.
  */
 @Service
 @Transactional
+@Timed(value = "playlist.service", histogram = true)
 public class PlaylistService {
 
     private final PlaylistRepository repository;
+    private final SongRepository songRepository;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final PlaylistDtoCache cache;
+    private final SongSearchIndex searchIndex;
+    private final PlaylistReadModel readModel;
+    private final PlaylistChangeFeed changeFeed;
+    private final boolean outboxEnabled;
+    private final TransactionTemplate readOnlyTx;
+    private final int bulkChunkSize;
 
     /**
      * Construye un PlaylistService con un PlaylistRepository.
      * @param repository El repositorio para las operaciones de datos de las listas de reproducción.
+     * @param songRepository El repositorio para modificar canciones individuales.
+     * @param entityManager El gestor de entidades compartido, usado para volcar por bloques las importaciones masivas.
+     * @param validator El validador de Bean Validation, usado para validar cada elemento de una importación masiva.
+     * @param cache La caché de listas ya mapeadas que se consulta antes de ir a la base de datos.
+     * @param searchIndex El índice de búsqueda de canciones, que se actualiza tras confirmar cada escritura.
+     * @param readModel La réplica de lectura en memoria, que se consulta antes que la caché y se actualiza tras
+     *                  confirmar cada escritura.
+     * @param changeFeed El flujo de cambios en el que se publica cada escritura tras confirmarla.
+     * @param outbox La configuración del outbox; si está habilitado, las altas y bajas de listas escriben su evento
+     *               en la misma transacción.
+     * @param transactionManager El gestor de transacciones, usado para abrir una transacción solo al cargar una lista
+     *                           que no está en caché.
+     * @param bulkChunkSize El número de listas que se validan y se vuelcan juntas en una importación masiva.
      */
-    public PlaylistService(PlaylistRepository repository) {
+    public PlaylistService(PlaylistRepository repository, SongRepository songRepository,
+                           EntityManager entityManager, Validator validator,
+                           PlaylistDtoCache cache, SongSearchIndex searchIndex, PlaylistReadModel readModel,
+                           PlaylistChangeFeed changeFeed, OutboxProperties outbox,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${playlist.bulk.chunk-size:500}") int bulkChunkSize) {
         this.repository = repository;
+        this.songRepository = songRepository;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.cache = cache;
+        this.searchIndex = searchIndex;
+        this.readModel = readModel;
+        this.changeFeed = changeFeed;
+        this.outboxEnabled = outbox.enabled();
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.bulkChunkSize = bulkChunkSize;
     }
 
     /**
      * Crea una nueva lista de reproducción.
-     * Valida que el nombre no esté vacío y que no exista ya una lista con el mismo nombre.
+     * Valida que el nombre no esté vacío. La unicidad del nombre, sin distinguir mayúsculas, la garantiza el índice
+     * único de la clave natural: la lista se inserta directamente y un conflicto se detecta al volcarla,
+     * sin una consulta previa que pudiera quedar obsoleta ante una creación concurrente.
      * @param dto Los datos de la lista de reproducción a crear.
      * @return La lista de reproducción creada.
      * @throws IllegalArgumentException si el nombre de la lista es nulo o está vacío.
@@ -41,34 +123,266 @@ public class PlaylistService {
         if (dto.nombre() == null || dto.nombre().isBlank()) {
             throw new IllegalArgumentException("El nombre de la lista es obligatorio");
         }
-        if (repository.existsByNameIgnoreCase(dto.nombre())) {
-            throw new AlreadyExistsException("La lista '" + dto.nombre() + "' ya existe");
-        }
         Playlist entity = PlaylistMapper.toEntity(dto);
-        Playlist saved = repository.save(entity);
-        return PlaylistMapper.toDto(saved);
+        Playlist saved;
+        try {
+            saved = repository.saveAndFlush(entity);
+        } catch (DataIntegrityViolationException e) {
+            if (isNameConflict(e)) {
+                throw new AlreadyExistsException("La lista '" + dto.nombre() + "' ya existe");
+            }
+            throw e;
+        }
+        cache.invalidate(saved.getName());
+        writeOutbox(PlaylistChangeDto.Tipo.CREADA, saved.getId(), saved.getName(), saved.getVersion());
+        PlaylistDto created = PlaylistMapper.toDto(saved);
+        VersionedPlaylist versioned = new VersionedPlaylist(created, versionOf(saved));
+        TransactionCallbacks.afterCommit(() -> {
+            searchIndex.index(versioned.version(), saved.getName(), created.canciones());
+            readModel.putAll(List.of(versioned));
+            changeFeed.publish(PlaylistChangeDto.Tipo.CREADA, saved.getName(), saved.getVersion());
+        });
+        return created;
+    }
+
+    /**
+     * Importa un conjunto de listas de reproducción en una única transacción.
+     * Los elementos se procesan por bloques: los nombres de cada bloque se comprueban contra la base de datos
+     * con una sola consulta y las listas válidas se insertan mediante lotes JDBC antes de liberar el contexto
+     * de persistencia. Los elementos inválidos o con nombre repetido se rechazan individualmente sin abortar
+     * el resto de la importación.
+     * @param items Los elementos a importar; se consumen una sola vez y pueden proceder de un flujo.
+     * @return El resultado de la importación, con el estado de cada elemento.
+     */
+    public BulkImportResultDto importAll(Iterator<PlaylistDto> items) {
+        List<BulkItemResultDto> results = new ArrayList<>();
+        Set<String> accepted = new HashSet<>();
+        List<PlaylistDto> chunk = new ArrayList<>(bulkChunkSize);
+        while (items.hasNext()) {
+            chunk.add(items.next());
+            if (chunk.size() == bulkChunkSize) {
+                importChunk(chunk, accepted, results);
+                chunk.clear();
+            }
+        }
+        importChunk(chunk, accepted, results);
+
+        int created = 0, conflicts = 0, invalid = 0;
+        for (BulkItemResultDto r : results) {
+            switch (r.estado()) {
+                case CREADA -> created++;
+                case CONFLICTO -> conflicts++;
+                case INVALIDA -> invalid++;
+            }
+        }
+        return new BulkImportResultDto(created, conflicts, invalid, results);
+    }
+
+    /**
+     * Valida e inserta un bloque de una importación masiva, añadiendo el resultado de cada elemento.
+     * @param chunk Los elementos del bloque.
+     * @param accepted Las claves de los nombres ya aceptados en bloques anteriores de la misma importación.
+     * @param results La lista a la que se añaden los resultados.
+     */
+    private void importChunk(List<PlaylistDto> chunk, Set<String> accepted, List<BulkItemResultDto> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<String> errors = new ArrayList<>(chunk.size());
+        Set<String> names = new HashSet<>();
+        for (PlaylistDto dto : chunk) {
+            String error = validate(dto);
+            errors.add(error);
+            if (error == null) {
+                names.add(Playlist.nameKey(dto.nombre()));
+            }
+        }
+        Set<String> existing = names.isEmpty() ? Set.of() : repository.findExistingNameKeys(names);
+        List<Playlist> created = new ArrayList<>(chunk.size());
+
+        for (int i = 0; i < chunk.size(); i++) {
+            PlaylistDto dto = chunk.get(i);
+            int index = results.size();
+            if (errors.get(i) != null) {
+                results.add(new BulkItemResultDto(index, dto.nombre(), BulkItemResultDto.Estado.INVALIDA, errors.get(i)));
+                continue;
+            }
+            String key = Playlist.nameKey(dto.nombre());
+            if (existing.contains(key) || !accepted.add(key)) {
+                results.add(new BulkItemResultDto(index, dto.nombre(), BulkItemResultDto.Estado.CONFLICTO,
+                        "La lista '" + dto.nombre() + "' ya existe"));
+                continue;
+            }
+            Playlist entity = PlaylistMapper.toEntity(dto);
+            entityManager.persist(entity);
+            writeOutbox(PlaylistChangeDto.Tipo.CREADA, entity.getId(), entity.getName(), entity.getVersion());
+            cache.invalidate(dto.nombre());
+            created.add(entity);
+            results.add(new BulkItemResultDto(index, dto.nombre(), BulkItemResultDto.Estado.CREADA, null));
+        }
+        entityManager.flush();
+        List<VersionedPlaylist> createdVersions = created.stream()
+                .map(p -> new VersionedPlaylist(PlaylistMapper.toDto(p), versionOf(p)))
+                .toList();
+        TransactionCallbacks.afterCommit(() -> {
+            for (VersionedPlaylist p : createdVersions) {
+                searchIndex.index(p.version(), p.playlist().nombre(), p.playlist().canciones());
+            }
+            readModel.putAll(createdVersions);
+            for (VersionedPlaylist p : createdVersions) {
+                changeFeed.publish(PlaylistChangeDto.Tipo.CREADA, p.playlist().nombre(), p.version().version());
+            }
+        });
+        entityManager.clear();
+    }
+
+    /**
+     * Valida un elemento de una importación masiva con las restricciones declaradas en el DTO.
+     * @param dto El elemento a validar.
+     * @return El primer error encontrado, o {@code null} si el elemento es válido.
+     */
+    private String validate(PlaylistDto dto) {
+        if (dto == null) {
+            return "Elemento vacío";
+        }
+        Set<ConstraintViolation<PlaylistDto>> violations = validator.validate(dto);
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .findFirst().orElse(null);
+    }
+
+    /**
+     * Recupera una página de listas de reproducción ordenadas por nombre.
+     * Usa paginación por clave: una consulta obtiene los identificadores de la página y otra
+     * lee esas listas con sus canciones como filas planas, de modo que el número de consultas no depende del tamaño
+     * de la página y no se crean entidades. Si la réplica de lectura en memoria está construida, la página se sirve
+     * desde ella sin abrir ninguna transacción.
+     * @param after El nombre de la última lista de la página anterior, o {@code null} para la primera página.
+     * @param limit El número máximo de listas a devolver.
+     * @return Las listas de reproducción de la página, ordenadas por nombre.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<PlaylistDto> findAll(String after, int limit) {
+        List<PlaylistDto> replica = readModel.page(after, limit);
+        return replica != null ? replica : readOnlyTx.execute(status -> loadPage(after, limit));
     }
 
     /**
-     * Recupera todas las listas de reproducción.
-     * @return Una lista de todas las listas de reproducción.
+     * Lee una página de listas de reproducción de la base de datos.
+     * @param after El nombre de la última lista de la página anterior, o {@code null} para la primera página.
+     * @param limit El número máximo de listas a devolver.
+     * @return Las listas de reproducción de la página, ordenadas por nombre.
+     */
+    private List<PlaylistDto> loadPage(String after, int limit) {
+        List<Long> ids = repository.findIdsAfter(after == null ? "" : after, Limit.of(limit));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<PlaylistDto> page = new ArrayList<>(ids.size());
+        PlaylistMapper.toDtos(repository.findRowsByIdIn(ids).iterator(), page::add);
+        return page;
+    }
+
+    /**
+     * Recupera una página de resúmenes de listas de reproducción, sin sus canciones.
+     * Se leen de los agregados desnormalizados de cada lista con una sola consulta sobre la tabla de listas.
+     * @param pageable La página y el orden solicitados.
+     * @return La página de resúmenes.
      */
     @Transactional(readOnly = true)
-    public List<PlaylistDto> findAll() {
-        return repository.findAll().stream().map(PlaylistMapper::toDto).toList();
+    public Slice<PlaylistSummaryDto> findSummaries(Pageable pageable) {
+        return repository.findSummaries(pageable);
+    }
+
+    /**
+     * Recorre todas las listas de reproducción y entrega cada una al consumidor indicado.
+     * Las listas se leen de un cursor de base de datos como filas planas y se agrupan al vuelo, por lo que
+     * la memoria usada no crece con el tamaño del catálogo y no se llena el contexto de persistencia.
+     * @param sink El consumidor que recibe cada lista, en orden de nombre.
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<PlaylistDto> sink) {
+        try (Stream<PlaylistSongRow> rows = repository.streamAllRows()) {
+            PlaylistMapper.toDtos(rows.iterator(), sink);
+        }
     }
 
     /**
      * Busca una lista de reproducción por su nombre.
+     * Se sirve desde la caché de listas mapeadas; solo en caso de fallo se abre una transacción de lectura
+     * para cargar la lista con sus canciones.
      * @param name El nombre de la lista a buscar.
      * @return La lista de reproducción encontrada.
      * @throws NotFoundException si no se encuentra ninguna lista con el nombre especificado.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public PlaylistDto findByName(String name) {
-        Playlist p = repository.findByNameIgnoreCase(name)
+        return findVersionedByName(name).playlist();
+    }
+
+    /**
+     * Busca una lista de reproducción por su nombre junto con la versión de la que se obtuvo.
+     * Igual que {@link #findByName(String)}, se sirve desde la caché sin abrir ninguna transacción.
+     * @param name El nombre de la lista a buscar.
+     * @return La lista de reproducción encontrada y su versión.
+     * @throws NotFoundException si no se encuentra ninguna lista con el nombre especificado.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public VersionedPlaylist findVersionedByName(String name) {
+        VersionedPlaylist replica = readModel.get(name);
+        if (replica != null) {
+            return replica;
+        }
+        return cache.get(name, n -> readOnlyTx.execute(status -> load(n)));
+    }
+
+    /**
+     * Busca una lista de reproducción por su nombre, garantizando que corresponde a la versión indicada.
+     * Si la copia en caché es de otra versión se vuelve a cargar desde la base de datos.
+     * @param name El nombre de la lista a buscar.
+     * @param expected La versión vigente, obtenida con {@link #findVersion(String)}.
+     * @return La lista de reproducción encontrada y su versión.
+     * @throws NotFoundException si no se encuentra ninguna lista con el nombre especificado.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public VersionedPlaylist findVersionedByName(String name, PlaylistVersion expected) {
+        VersionedPlaylist replica = readModel.get(name);
+        if (replica != null && replica.version().sameVersionAs(expected)) {
+            return replica;
+        }
+        return cache.get(name, expected, n -> readOnlyTx.execute(status -> load(n)));
+    }
+
+    /**
+     * Obtiene la identidad y la versión actuales de una lista sin cargar sus canciones.
+     * Es la consulta que respalda las peticiones HTTP condicionales.
+     * @param name El nombre de la lista.
+     * @return La versión actual de la lista.
+     * @throws NotFoundException si no se encuentra ninguna lista con el nombre especificado.
+     */
+    @Transactional(readOnly = true)
+    public PlaylistVersion findVersion(String name) {
+        return repository.findVersionByNameKey(Playlist.nameKey(name))
+                .map(NamedPlaylistVersion::version)
                 .orElseThrow(() -> new NotFoundException("No existe la lista '" + name + "'"));
-        return PlaylistMapper.toDto(p);
+    }
+
+    /**
+     * Lee una lista de reproducción con sus canciones desde la base de datos como filas planas y las agrupa en un DTO,
+     * sin crear entidades.
+     * @param name El nombre de la lista a cargar.
+     * @return La lista de reproducción encontrada y su versión.
+     * @throws NotFoundException si no se encuentra ninguna lista con el nombre especificado.
+     */
+    private VersionedPlaylist load(String name) {
+        List<PlaylistSongRow> rows = repository.findRowsByNameKey(Playlist.nameKey(name));
+        if (rows.isEmpty()) {
+            throw new NotFoundException("No existe la lista '" + name + "'");
+        }
+        PlaylistSongRow head = rows.get(0);
+        return new VersionedPlaylist(PlaylistMapper.toDto(rows),
+                new PlaylistVersion(head.playlistId(), head.version(), head.updatedAt()));
     }
 
     /**
@@ -77,8 +391,328 @@ public class PlaylistService {
      * @throws NotFoundException si no se encuentra ninguna lista con el nombre especificado.
      */
     public void deleteByName(String name) {
-        Playlist p = repository.findByNameIgnoreCase(name)
+        deleteByName(name, null);
+    }
+
+    /**
+     * Elimina una lista de reproducción por su nombre si sigue en alguna de las versiones aceptadas.
+     * Ni la lista ni sus canciones se cargan: las canciones se eliminan con una sola sentencia y la lista con un
+     * borrado condicionado a su versión, de modo que un cambio concurrente provoca un fallo de bloqueo optimista
+     * en lugar de perderse. Las sentencias masivas invalidan por sí mismas las regiones afectadas de la caché de
+     * segundo nivel.
+     * @param name El nombre de la lista a eliminar.
+     * @param expected Las versiones aceptadas, o {@code null} para borrar la versión actual.
+     * @throws NotFoundException si no se encuentra ninguna lista con el nombre especificado.
+     * @throws PreconditionFailedException si la lista no está en ninguna de las versiones aceptadas.
+     */
+    public void deleteByName(String name, Collection<PlaylistVersion> expected) {
+        delete(List.of(checkVersion(name, expected)));
+    }
+
+    /**
+     * Elimina varias listas de reproducción en una sola transacción: o se eliminan todas o ninguna.
+     * Las canciones de todas ellas se eliminan con una sola sentencia.
+     * @param names Los nombres de las listas a eliminar.
+     * @throws NotFoundException si alguna de las listas no existe.
+     * @throws org.springframework.dao.OptimisticLockingFailureException si alguna lista cambió durante el borrado.
+     */
+    public void deleteAllByName(Collection<String> names) {
+        Set<String> keys = new HashSet<>();
+        names.forEach(n -> keys.add(Playlist.nameKey(n)));
+        List<NamedPlaylistVersion> versions = repository.findVersionsByNameKeys(keys);
+        if (versions.size() < keys.size()) {
+            Set<String> existing = repository.findExistingNameKeys(keys);
+            List<String> missing = names.stream().filter(n -> !existing.contains(Playlist.nameKey(n))).distinct().toList();
+            throw new NotFoundException("No existen las listas " + missing);
+        }
+        delete(versions);
+    }
+
+    /**
+     * Elimina listas ya localizadas junto con sus canciones, e invalida las cachés tras confirmar.
+     * @param versions Los nombres y las versiones leídas de las listas.
+     * @throws ObjectOptimisticLockingFailureException si alguna lista cambió después de leer su versión.
+     */
+    private void delete(List<NamedPlaylistVersion> versions) {
+        List<Long> ids = versions.stream().map(v -> v.version().id()).toList();
+        songRepository.deleteAllFromPlaylists(ids);
+        for (NamedPlaylistVersion named : versions) {
+            PlaylistVersion version = named.version();
+            if (repository.deleteVersioned(version.id(), version.version()) == 0) {
+                throw new ObjectOptimisticLockingFailureException(Playlist.class, version.id());
+            }
+            cache.invalidate(named.name());
+            writeOutbox(PlaylistChangeDto.Tipo.ELIMINADA, version.id(), named.name(), version.version());
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            versions.forEach(v -> searchIndex.removePlaylist(v.version()));
+            readModel.removeAll(versions.stream().map(NamedPlaylistVersion::version).toList());
+            for (NamedPlaylistVersion named : versions) {
+                changeFeed.publish(PlaylistChangeDto.Tipo.ELIMINADA, named.name(), named.version().version());
+            }
+        });
+    }
+
+    /**
+     * Añade canciones al final de una lista de reproducción.
+     * Solo se insertan las filas nuevas: la colección de canciones existente no se carga.
+     * @param name El nombre de la lista.
+     * @param songs Las canciones a añadir.
+     * @param expected Las versiones aceptadas de la lista, o {@code null} para aceptar cualquiera.
+     * @return Las canciones añadidas y la nueva versión de la lista.
+     * @throws NotFoundException si no existe la lista.
+     * @throws PreconditionFailedException si la lista no está en ninguna de las versiones aceptadas.
+     */
+    public SongChange addSongs(String name, List<SongDto> songs, Collection<PlaylistVersion> expected) {
+        return patchSongs(name, new SongPatchDto(songs, null), expected);
+    }
+
+    /**
+     * Elimina una canción de una lista de reproducción con una sola sentencia DELETE.
+     * @param name El nombre de la lista.
+     * @param songId El identificador de la canción.
+     * @param expected Las versiones aceptadas de la lista, o {@code null} para aceptar cualquiera.
+     * @return La nueva versión de la lista.
+     * @throws NotFoundException si no existe la lista o la canción no pertenece a ella.
+     * @throws PreconditionFailedException si la lista no está en ninguna de las versiones aceptadas.
+     */
+    public PlaylistVersion removeSong(String name, Long songId, Collection<PlaylistVersion> expected) {
+        return patchSongs(name, new SongPatchDto(null, List.of(songId)), expected).version();
+    }
+
+    /**
+     * Aplica en una transacción un conjunto de altas y bajas de canciones en una lista de reproducción.
+     * Las bajas se ejecutan con un único DELETE por identificador de canción y las altas con INSERT en lote,
+     * sin cargar la colección de canciones, por lo que el coste no depende del tamaño de la lista.
+     * La versión de la lista se incrementa con una actualización condicional que detecta escrituras concurrentes,
+     * y su número de canciones y su histograma de géneros se ajustan en la misma transacción.
+     * @param name El nombre de la lista.
+     * @param patch Las canciones a añadir y los identificadores de las canciones a eliminar.
+     * @param expected Las versiones aceptadas de la lista, o {@code null} para aceptar cualquiera.
+     * @return Las canciones añadidas y la nueva versión de la lista.
+     * @throws NotFoundException si no existe la lista o alguna canción a eliminar no pertenece a ella.
+     * @throws PreconditionFailedException si la lista no está en ninguna de las versiones aceptadas.
+     * @throws IllegalArgumentException si el cambio no contiene ninguna alta ni baja.
+     */
+    public SongChange patchSongs(String name, SongPatchDto patch, Collection<PlaylistVersion> expected) {
+        boolean hasAdds = patch.agregar() != null && !patch.agregar().isEmpty();
+        boolean hasRemovals = patch.eliminar() != null && !patch.eliminar().isEmpty();
+        if (!hasAdds && !hasRemovals) {
+            throw new IllegalArgumentException("El cambio no contiene canciones a añadir ni a eliminar");
+        }
+        NamedPlaylistVersion checked = checkVersion(name, expected);
+        PlaylistVersion current = checked.version();
+        PlaylistVersion next = incrementVersion(current);
+        Map<String, Integer> genreCounts = new HashMap<>(repository.findGenreCounts(current.id()));
+        int songDelta = 0;
+
+        if (hasRemovals) {
+            Set<Long> ids = new HashSet<>(patch.eliminar());
+            List<String> genres = songRepository.findGenres(current.id(), ids);
+            if (genres.size() != ids.size() || songRepository.deleteFromPlaylist(current.id(), ids) != ids.size()) {
+                throw new NotFoundException("Alguna de las canciones no existe en la lista '" + name + "'");
+            }
+            genres.forEach(g -> Playlist.addGenre(genreCounts, g, -1));
+            songDelta -= ids.size();
+            TransactionCallbacks.afterCommit(() -> searchIndex.removeSongs(ids));
+        }
+
+        List<SongDto> added = List.of();
+        if (hasAdds) {
+            Playlist owner = entityManager.getReference(Playlist.class, current.id());
+            long position = songRepository.findMaxPosition(current.id());
+            List<Song> songs = new ArrayList<>(patch.agregar().size());
+            for (SongDto dto : patch.agregar()) {
+                Song song = PlaylistMapper.toEntity(dto);
+                song.setPlaylist(owner);
+                position += Song.POSITION_GAP;
+                song.setPosition(position);
+                songs.add(song);
+                Playlist.addGenre(genreCounts, dto.genero(), 1);
+            }
+            songDelta += songs.size();
+            added = songRepository.saveAll(songs).stream().map(PlaylistMapper::toDto).toList();
+            List<SongDto> indexed = added;
+            TransactionCallbacks.afterCommit(() -> searchIndex.index(next, checked.name(), indexed));
+        }
+
+        repository.updateSongAggregates(current.id(), songDelta, genreCounts);
+        cache.invalidate(name);
+        publishAfterCommit(checked.name(), next);
+        return new SongChange(added, next);
+    }
+
+    /**
+     * Mueve una canción detrás de otra (o al principio) dentro de su lista de reproducción.
+     * La nueva posición es el punto medio del hueco entre sus nuevos vecinos, de modo que solo se actualiza
+     * la fila de la canción movida; la lista solo se renumera en el caso excepcional de que el hueco se agote.
+     * @param name El nombre de la lista.
+     * @param songId El identificador de la canción a mover.
+     * @param afterId El identificador de la canción tras la que se colocará, o {@code null} para el principio.
+     * @param expected Las versiones aceptadas de la lista, o {@code null} para aceptar cualquiera.
+     * @return La nueva versión de la lista.
+     * @throws NotFoundException si no existe la lista o alguna de las canciones no pertenece a ella.
+     * @throws PreconditionFailedException si la lista no está en ninguna de las versiones aceptadas.
+     * @throws IllegalArgumentException si se intenta colocar una canción detrás de sí misma.
+     */
+    public PlaylistVersion moveSong(String name, Long songId, Long afterId, Collection<PlaylistVersion> expected) {
+        if (songId.equals(afterId)) {
+            throw new IllegalArgumentException("Una canción no puede colocarse detrás de sí misma");
+        }
+        NamedPlaylistVersion checked = checkVersion(name, expected);
+        PlaylistVersion current = checked.version();
+        Long playlistId = current.id();
+        if (songRepository.findPosition(playlistId, songId).isEmpty()) {
+            throw new NotFoundException("La canción " + songId + " no existe en la lista '" + name + "'");
+        }
+        PlaylistVersion next = incrementVersion(current);
+
+        Long position = positionAfter(playlistId, songId, afterId);
+        if (position == null) {
+            renumber(playlistId);
+            position = positionAfter(playlistId, songId, afterId);
+        }
+        songRepository.updatePosition(playlistId, songId, position);
+        cache.invalidate(name);
+        publishAfterCommit(checked.name(), next);
+        return next;
+    }
+
+    /**
+     * Recupera un rango de canciones de una lista en su orden, sin cargar la lista ni el resto de canciones.
+     * La consulta recorre el índice {@code (playlist_id, position)} y proyecta directamente a {@link SongDto}.
+     * @param name El nombre de la lista.
+     * @param offset El número de canciones a saltar.
+     * @param limit El número máximo de canciones a devolver.
+     * @return Las canciones del rango, ordenadas por posición.
+     * @throws NotFoundException si no existe la lista.
+     */
+    @Transactional(readOnly = true)
+    public List<SongDto> findSongs(String name, int offset, int limit) {
+        PlaylistVersion current = findVersion(name);
+        return entityManager.createQuery("select new demo.playlist_api.web.dto.SongDto("
+                        + "s.id, s.titulo, s.artista, s.album, s.anno, s.genero) "
+                        + "from Song s where s.playlist.id = :playlistId order by s.position", SongDto.class)
+                .setParameter("playlistId", current.id())
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Publica una lista modificada en el flujo de cambios cuando la transacción se confirme. Si la réplica de
+     * lectura está habilitada, además vuelve a leer la lista dentro de la transacción actual y la publica en la
+     * réplica; leerla antes de confirmar evita abrir una segunda conexión desde la confirmación.
+     * @param name El nombre de la lista modificada, tal como está guardado.
+     * @param next La nueva versión de la lista.
+     */
+    private void publishAfterCommit(String name, PlaylistVersion next) {
+        VersionedPlaylist updated = readModel.isEnabled() ? load(name) : null;
+        TransactionCallbacks.afterCommit(() -> {
+            if (updated != null) {
+                readModel.putAll(List.of(updated));
+            }
+            changeFeed.publish(PlaylistChangeDto.Tipo.ACTUALIZADA, name, next.version());
+        });
+    }
+
+    /**
+     * Si el outbox está habilitado, añade un evento al contexto de persistencia para que se inserte al volcar la
+     * transacción actual; los eventos de una misma transacción se insertan juntos en un lote JDBC.
+     * @param tipo El tipo de cambio.
+     * @param playlistId El identificador de la lista.
+     * @param name El nombre de la lista, tal como está guardado.
+     * @param version La versión de la lista tras el cambio, o la eliminada en los borrados.
+     */
+    private void writeOutbox(PlaylistChangeDto.Tipo tipo, Long playlistId, String name, long version) {
+        if (outboxEnabled) {
+            entityManager.persist(new OutboxEvent(tipo, playlistId, name, version));
+        }
+    }
+
+    /**
+     * Obtiene la versión de una lista recién insertada y volcada.
+     * @param playlist La lista.
+     * @return Su identidad y versión.
+     */
+    private static PlaylistVersion versionOf(Playlist playlist) {
+        return new PlaylistVersion(playlist.getId(), playlist.getVersion(), playlist.getUpdatedAt());
+    }
+
+    /**
+     * Indica si una violación de integridad se debe al índice único de la clave natural del nombre.
+     * @param e La excepción producida al volcar la lista.
+     * @return {@code true} si ya existe una lista con el mismo nombre.
+     */
+    private static boolean isNameConflict(DataIntegrityViolationException e) {
+        String constraint = e.getCause() instanceof ConstraintViolationException cve ? cve.getConstraintName() : null;
+        String detail = constraint != null ? constraint : String.valueOf(e.getMostSpecificCause().getMessage());
+        return detail.toLowerCase(Locale.ROOT).contains("uk_playlist_name_key");
+    }
+
+    /**
+     * Obtiene la versión actual de una lista y comprueba que coincide con alguna de las aceptadas.
+     * @param name El nombre de la lista.
+     * @param expected Las versiones aceptadas, o {@code null} para aceptar cualquiera.
+     * @return El nombre guardado y la versión actual de la lista.
+     * @throws NotFoundException si no existe la lista.
+     * @throws PreconditionFailedException si la lista no está en ninguna de las versiones aceptadas.
+     */
+    private NamedPlaylistVersion checkVersion(String name, Collection<PlaylistVersion> expected) {
+        NamedPlaylistVersion current = repository.findVersionByNameKey(Playlist.nameKey(name))
                 .orElseThrow(() -> new NotFoundException("No existe la lista '" + name + "'"));
-        repository.delete(p);
+        if (expected != null && expected.stream().noneMatch(v -> v.sameVersionAs(current.version()))) {
+            throw new PreconditionFailedException("La lista '" + name + "' ha sido modificada");
+        }
+        return current;
+    }
+
+    /**
+     * Incrementa la versión de una lista con una actualización condicional.
+     * @param current La versión leída de la lista.
+     * @return La nueva versión de la lista.
+     * @throws ObjectOptimisticLockingFailureException si otra transacción modificó la lista entretanto.
+     */
+    private PlaylistVersion incrementVersion(PlaylistVersion current) {
+        Instant now = Instant.now();
+        if (repository.incrementVersion(current.id(), current.version(), now) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Playlist.class, current.id());
+        }
+        return new PlaylistVersion(current.id(), current.version() + 1, now);
+    }
+
+    /**
+     * Calcula la posición que colocaría una canción detrás de otra.
+     * @param playlistId El identificador de la lista.
+     * @param songId La canción que se mueve.
+     * @param afterId La canción tras la que se colocará, o {@code null} para el principio.
+     * @return La nueva posición, o {@code null} si no queda hueco entre los vecinos.
+     * @throws NotFoundException si {@code afterId} no pertenece a la lista.
+     */
+    private Long positionAfter(Long playlistId, Long songId, Long afterId) {
+        long previous = 0;
+        if (afterId != null) {
+            previous = songRepository.findPosition(playlistId, afterId)
+                    .orElseThrow(() -> new NotFoundException("La canción " + afterId + " no existe en la lista"));
+        }
+        Long following = songRepository.findNextPosition(playlistId, previous, songId);
+        if (following == null) {
+            return previous + Song.POSITION_GAP;
+        }
+        return following - previous > 1 ? previous + (following - previous) / 2 : null;
+    }
+
+    /**
+     * Reasigna posiciones equiespaciadas a todas las canciones de una lista, conservando su orden.
+     * Las actualizaciones se envían en lotes JDBC.
+     * @param playlistId El identificador de la lista.
+     */
+    private void renumber(Long playlistId) {
+        long position = 0;
+        for (Song song : songRepository.findByPlaylistIdOrderByPositionAscIdAsc(playlistId)) {
+            position += Song.POSITION_GAP;
+            song.setPosition(position);
+        }
+        entityManager.flush();
     }
 }
@@ -0,0 +1,143 @@
+package demo.playlist_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import demo.playlist_api.config.WarmupProperties;
+import demo.playlist_api.web.dto.PlaylistDto;
+import demo.playlist_api.web.dto.PlaylistSummaryDto;
+import demo.playlist_api.web.dto.SongDto;
+import demo.playlist_api.web.mapper.PlaylistMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Calentamiento de la aplicación al arrancar ({@code playlist.warmup.*}).
+ * <p>
+ * Se ejecuta como {@link ApplicationRunner}, es decir, antes de que Spring Boot publique que la aplicación
+ * está lista para recibir tráfico ({@code /actuator/health/readiness}). Primero precarga en la caché de listas
+ * las listas modificadas más recientemente, que son las que con más probabilidad se leerán justo después de un
+ * reinicio; después repite el mapeo entre entidades y DTO y la serialización JSON y CBOR de esas listas para que
+ * el JIT compile esos caminos antes de las primeras peticiones. Los errores del calentamiento se registran y no
+ * impiden arrancar.
+ */
+@Component
+public class PlaylistWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PlaylistWarmup.class);
+
+    private final PlaylistService service;
+    private final WarmupProperties properties;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+
+    /**
+     * Construye el calentamiento.
+     * @param service El servicio con el que se precargan las listas.
+     * @param properties El número de listas a precargar y la duración del calentamiento del JIT.
+     * @param builder El constructor de mapeadores de Spring Boot, con la misma configuración que los conversores
+     *                JSON y CBOR de la aplicación.
+     */
+    public PlaylistWarmup(PlaylistService service, WarmupProperties properties, Jackson2ObjectMapperBuilder builder) {
+        this.service = service;
+        this.properties = properties;
+        this.jsonMapper = builder.build();
+        this.cborMapper = builder.createXmlMapper(false).factory(new CBORFactory()).build();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.enabled()) {
+            return;
+        }
+        try {
+            warmUp();
+        } catch (RuntimeException e) {
+            log.warn("El calentamiento no se ha completado", e);
+        }
+    }
+
+    /**
+     * Precarga las listas más recientes y calienta el JIT con ellas.
+     * @return El número de listas precargadas.
+     */
+    public int warmUp() {
+        long start = System.nanoTime();
+        List<PlaylistDto> hot = preload();
+        long preloaded = System.nanoTime();
+        int iterations = primeJit(hot.isEmpty() ? List.of(sample()) : hot);
+        long end = System.nanoTime();
+        log.info("Calentamiento terminado: {} listas precargadas en {} ms, {} vueltas de mapeo y serialización en {} ms",
+                hot.size(), (preloaded - start) / 1_000_000, iterations, (end - preloaded) / 1_000_000);
+        return hot.size();
+    }
+
+    /**
+     * Carga en la caché de listas las listas modificadas más recientemente.
+     * @return Las listas cargadas.
+     */
+    private List<PlaylistDto> preload() {
+        if (properties.playlists() <= 0) {
+            return List.of();
+        }
+        PageRequest page = PageRequest.of(0, properties.playlists(),
+                Sort.by(Sort.Order.desc("updatedAt"), Sort.Order.asc("id")));
+        List<PlaylistDto> hot = new ArrayList<>(properties.playlists());
+        for (PlaylistSummaryDto summary : service.findSummaries(page)) {
+            try {
+                hot.add(service.findByName(summary.nombre()));
+            } catch (RuntimeException e) {
+                log.debug("No se ha podido precargar la lista '{}'", summary.nombre(), e);
+            }
+        }
+        return hot;
+    }
+
+    /**
+     * Repite el mapeo y la serialización de las listas indicadas hasta completar las vueltas configuradas
+     * o agotar el tiempo máximo.
+     * @param playlists Las listas con las que calentar; no puede estar vacío.
+     * @return El número de vueltas completadas.
+     */
+    private int primeJit(List<PlaylistDto> playlists) {
+        long deadline = System.nanoTime() + properties.maxDuration().toNanos();
+        long bytes = 0;
+        int i = 0;
+        try {
+            for (; i < properties.iterations() && System.nanoTime() - deadline < 0; i++) {
+                PlaylistDto dto = PlaylistMapper.toDto(PlaylistMapper.toEntity(playlists.get(i % playlists.size())));
+                byte[] json = jsonMapper.writeValueAsBytes(dto);
+                byte[] cbor = cborMapper.writeValueAsBytes(dto);
+                bytes += json.length + cbor.length
+                        + jsonMapper.readValue(json, PlaylistDto.class).canciones().size()
+                        + cborMapper.readValue(cbor, PlaylistDto.class).canciones().size();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.debug("Calentamiento del JIT: {} bytes serializados", bytes);
+        return i;
+    }
+
+    /**
+     * Crea una lista de ejemplo con la que calentar el JIT cuando la base de datos está vacía.
+     * @return La lista de ejemplo.
+     */
+    private static PlaylistDto sample() {
+        List<SongDto> canciones = IntStream.range(0, 20)
+                .mapToObj(i -> new SongDto("Canción " + i, "Artista " + i, "Álbum", "2024", "Pop"))
+                .toList();
+        return new PlaylistDto("Calentamiento", "Lista de ejemplo para el calentamiento", canciones);
+    }
+}
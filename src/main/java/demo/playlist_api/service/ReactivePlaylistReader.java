@@ -0,0 +1,127 @@
+package demo.playlist_api.service;
+
+import demo.playlist_api.web.dto.PlaylistDto;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Lecturas de listas de reproducción como tipos reactivos ({@link Mono} y {@link Flux}) con contrapresión,
+ * opcionales ({@code playlist.reactive.enabled}).
+ * <p>
+ * Si la réplica en memoria ({@link PlaylistReadModel}) está construida, las lecturas se sirven de ella en el hilo
+ * que se suscribe, sin bloquearlo. Si no, el acceso a datos es JPA bloqueante a través de {@link PlaylistService}
+ * y se lanza en un planificador propio, de hilos virtuales si están habilitados: libera el hilo de la petición,
+ * pero cada consulta sigue ocupando un hilo y una conexión mientras dura.
+ * Los recorridos completos se leen por páginas bajo demanda: solo se lee la página siguiente cuando el
+ * consumidor ha pedido más elementos, de modo que un cliente lento frena la lectura en lugar de acumular memoria.
+ */
+@Service
+@ConditionalOnProperty(name = "playlist.reactive.enabled", havingValue = "true")
+public class ReactivePlaylistReader implements DisposableBean {
+
+    private final PlaylistService service;
+    private final PlaylistReadModel readModel;
+    private final Scheduler scheduler;
+    private final int pageSize;
+
+    /**
+     * Construye el lector.
+     * @param service El servicio de listas, usado para las consultas.
+     * @param readModel La réplica en memoria, de la que se leen las listas si está construida.
+     * @param virtualThreads Si las consultas se ejecutan en hilos virtuales en lugar de en el planificador elástico.
+     * @param pageSize El número de listas que se leen en cada consulta al recorrerlas.
+     */
+    public ReactivePlaylistReader(PlaylistService service, PlaylistReadModel readModel,
+                                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                  @Value("${playlist.pagination.default-limit:50}") int pageSize) {
+        this.service = service;
+        this.readModel = readModel;
+        this.scheduler = virtualThreads
+                ? Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "playlist-reader")
+                : Schedulers.boundedElastic();
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Busca una lista de reproducción por su nombre.
+     * @param name El nombre de la lista.
+     * @return La lista, o un error {@link demo.playlist_api.web.exception.NotFoundException} si no existe.
+     */
+    public Mono<PlaylistDto> findByName(String name) {
+        return Mono.defer(() -> {
+            VersionedPlaylist replica = readModel.get(name);
+            return replica != null
+                    ? Mono.just(replica.playlist())
+                    : Mono.fromCallable(() -> service.findByName(name)).subscribeOn(scheduler);
+        });
+    }
+
+    /**
+     * Recorre las listas de reproducción en orden de nombre a partir de un cursor.
+     * @param after El nombre a partir del cual empezar (exclusivo), o {@code null} para empezar por el principio.
+     * @return Las listas, leídas por páginas a medida que el suscriptor las pide.
+     */
+    public Flux<PlaylistDto> findAll(String after) {
+        // Una página vacía de la réplica solo indica si está construida
+        return Flux.defer(() -> readModel.page(after, 0) != null
+                ? pages(after, this::page)
+                : pages(after, service::findAll).subscribeOn(scheduler));
+    }
+
+    /**
+     * Lee una página de la réplica, o de la base de datos si la réplica ha dejado de estar disponible.
+     * @param after El nombre de la última lista entregada (exclusivo), o {@code null} para la primera página.
+     * @param limit El número máximo de listas a devolver.
+     * @return Las listas de la página, ordenadas por nombre.
+     */
+    private List<PlaylistDto> page(String after, int limit) {
+        List<PlaylistDto> replica = readModel.page(after, limit);
+        return replica != null ? replica : service.findAll(after, limit);
+    }
+
+    /**
+     * Recorre las listas por páginas bajo demanda.
+     * @param after El nombre a partir del cual empezar (exclusivo), o {@code null} para empezar por el principio.
+     * @param loader La consulta de cada página, a partir de la última lista entregada y con el tamaño de página.
+     * @return Las listas, leídas por páginas a medida que el suscriptor las pide.
+     */
+    private Flux<PlaylistDto> pages(String after, BiFunction<String, Integer, List<PlaylistDto>> loader) {
+        return Flux.<List<PlaylistDto>, Cursor>generate(() -> new Cursor(after, false), (cursor, sink) -> {
+                    if (cursor.done()) {
+                        sink.complete();
+                        return cursor;
+                    }
+                    List<PlaylistDto> page = loader.apply(cursor.after(), pageSize);
+                    if (page.isEmpty()) {
+                        sink.complete();
+                        return cursor;
+                    }
+                    sink.next(page);
+                    return new Cursor(page.get(page.size() - 1).nombre(), page.size() < pageSize);
+                })
+                .flatMapIterable(Function.identity(), 1);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+
+    /**
+     * Posición del recorrido entre páginas.
+     * @param after El nombre de la última lista entregada.
+     * @param done Si la última página ya estaba incompleta y no queda nada más por leer.
+     */
+    private record Cursor(String after, boolean done) {}
+}
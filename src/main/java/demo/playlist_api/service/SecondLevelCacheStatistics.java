@@ -0,0 +1,50 @@
+package demo.playlist_api.service;
+
+import demo.playlist_api.web.dto.CacheRegionStatsDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Consulta las estadísticas por región de la caché de segundo nivel de Hibernate.
+ * Requiere {@code hibernate.generate_statistics=true}; sin ella todos los contadores valen 0.
+ */
+@Component
+public class SecondLevelCacheStatistics {
+
+    private final Statistics statistics;
+
+    /**
+     * Construye el consultor de estadísticas.
+     * @param entityManagerFactory La factoría de JPA, de la que se obtienen las estadísticas de Hibernate.
+     */
+    public SecondLevelCacheStatistics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Devuelve las estadísticas de cada región, incluida la de la caché de consultas.
+     * @return Las estadísticas de las regiones, ordenadas por nombre.
+     */
+    public List<CacheRegionStatsDto> regions() {
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(name -> toDto(name, statistics.getCacheRegionStatistics(name)))
+                .toList();
+    }
+
+    private static CacheRegionStatsDto toDto(String region, CacheRegionStatistics stats) {
+        if (stats == null) {
+            return new CacheRegionStatsDto(region, 0, 0, 0, 0);
+        }
+        long hits = stats.getHitCount();
+        long misses = stats.getMissCount();
+        double hitRate = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        return new CacheRegionStatsDto(region, hits, misses, stats.getPutCount(), hitRate);
+    }
+}
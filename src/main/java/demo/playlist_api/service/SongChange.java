@@ -0,0 +1,13 @@
+package demo.playlist_api.service;
+
+import demo.playlist_api.domain.repository.PlaylistVersion;
+import demo.playlist_api.web.dto.SongDto;
+
+import java.util.List;
+
+/**
+ * Resultado de modificar las canciones de una lista de reproducción.
+ * @param canciones Las canciones añadidas, con sus identificadores asignados.
+ * @param version La nueva versión de la lista tras el cambio.
+ */
+public record SongChange(List<SongDto> canciones, PlaylistVersion version) {}
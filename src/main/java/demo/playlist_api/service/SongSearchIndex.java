@@ -0,0 +1,680 @@
+package demo.playlist_api.service;
+
+import demo.playlist_api.domain.repository.PlaylistVersion;
+import demo.playlist_api.domain.repository.SongRepository;
+import demo.playlist_api.domain.repository.SongRow;
+import demo.playlist_api.web.dto.SongDto;
+import demo.playlist_api.web.dto.SongHitDto;
+import demo.playlist_api.web.dto.SongSearchResultDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido en memoria para la búsqueda de texto de canciones de todas las listas de reproducción.
+ * <p>
+ * Indexa el título, el artista, el álbum y el género de cada canción. Los textos se dividen en términos,
+ * se pasan a minúsculas y se les quitan las tildes, de modo que "Canción" y "cancion" coinciden. Cada término
+ * de la consulta de al menos {@value #MIN_PREFIX_LENGTH} caracteres encuentra también los términos que empiezan
+ * por él; todos los términos de la consulta deben aparecer en la canción. Los resultados se ordenan por relevancia
+ * según el campo en el que aparece cada término (título &gt; artista &gt; álbum &gt; género) y si la coincidencia
+ * es exacta o por prefijo.
+ * <p>
+ * Cada canción recibe un número de documento creciente y las listas de apariciones de cada término se guardan
+ * ordenadas por documento en arrays de enteros, con los campos codificados en los 4 bits bajos. Las búsquedas
+ * recorren esas listas con cursores, fusionando las de los términos de un prefijo e intersectando las de los
+ * términos de la consulta sobre la marcha, y solo guardan los mejores resultados de la página pedida. Las bajas
+ * solo marcan el documento como eliminado; cuando los eliminados superan a los vivos el índice se compacta.
+ * Las búsquedas comparten un cerrojo de lectura y las modificaciones, poco frecuentes, toman el de escritura.
+ * <p>
+ * Se reconstruye desde la base de datos al arrancar y {@link PlaylistService} lo mantiene al día tras confirmar
+ * cada escritura. Todas las modificaciones son idempotentes. Como las confirmaciones concurrentes pueden aplicarse
+ * en otro orden, las listas y canciones eliminadas dejan una marca durante {@link PlaylistReadModel#TOMBSTONE_TTL}
+ * para que una alta confirmada antes del borrado, pero aplicada después, no las vuelva a añadir, igual que en
+ * {@link PlaylistReadModel}.
+ */
+@Component
+public class SongSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SongSearchIndex.class);
+
+    private static final int TITULO = 1;
+    private static final int ARTISTA = 2;
+    private static final int ALBUM = 4;
+    private static final int GENERO = 8;
+    private static final int FIELD_BITS = 4;
+
+    /**
+     * Longitud mínima de un término de la consulta para buscarlo también como prefijo. Los más cortos
+     * se expandirían a buena parte del diccionario, así que solo coinciden de forma exacta.
+     */
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final SongRepository songRepository;
+    private final TransactionTemplate readOnlyTx;
+    /** Protege {@link #contents}, {@link #playlistTombstones}, {@link #songTombstones} y {@link #pending}. */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Serializa las reconstrucciones, que leen la base de datos sin tener {@link #lock}. */
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private Contents contents = new Contents();
+    /** Versión eliminada y caducidad (en {@link System#nanoTime()}) de cada lista eliminada, en orden de borrado. */
+    private final Map<Long, Tombstone> playlistTombstones = new LinkedHashMap<>();
+    /** Caducidad (en {@link System#nanoTime()}) de cada canción eliminada, en orden de borrado. */
+    private final Map<Long, Long> songTombstones = new LinkedHashMap<>();
+    /** Modificaciones recibidas durante una reconstrucción, para repetirlas sobre el índice nuevo; {@code null} fuera de ella. */
+    private List<Consumer<Contents>> pending;
+
+    /**
+     * Construye el índice, vacío hasta que se reconstruya.
+     * @param songRepository El repositorio del que se leen las canciones al reconstruir el índice.
+     * @param transactionManager El gestor de transacciones, usado para leer las canciones en una transacción de lectura.
+     */
+    public SongSearchIndex(SongRepository songRepository, PlatformTransactionManager transactionManager) {
+        this.songRepository = songRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * Reconstruye el índice completo a partir de todas las canciones de la base de datos.
+     * Se ejecuta al arrancar la aplicación. El índice nuevo se lee sin bloquear las búsquedas ni las modificaciones:
+     * mientras dura, estas se siguen aplicando al índice anterior y se guardan para repetirlas sobre el nuevo
+     * antes de publicarlo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Contents built = null;
+            try {
+                built = load();
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (built != null) {
+                        for (Consumer<Contents> change : pending) {
+                            change.accept(built);
+                        }
+                        built.compactIfNeeded();
+                        contents = built;
+                    }
+                    pending = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            log.info("Índice de búsqueda reconstruido: {} canciones, {} términos en {} ms",
+                    built.docBySong.size(), built.terms.size(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Lee todas las canciones de la base de datos en un índice nuevo.
+     * @return El contenido del índice.
+     */
+    private Contents load() {
+        Contents built = new Contents();
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<SongRow> rows = songRepository.streamAllRows()) {
+                rows.forEach(r -> {
+                    built.playlistNames.putIfAbsent(r.playlistId(), r.playlistName());
+                    built.add(r.playlistId(), new SongDto(r.id(), r.titulo(), r.artista(), r.album(), r.anno(), r.genero()));
+                });
+            }
+        });
+        return built;
+    }
+
+    /**
+     * Añade o reemplaza canciones de una lista en el índice. Se ignoran si la lista se eliminó con esa versión
+     * o una posterior, y también las canciones eliminadas.
+     * @param version La identidad y la versión de la lista que contiene las canciones.
+     * @param playlistName El nombre de la lista; si ya estaba indexada se conserva el nombre conocido.
+     * @param songs Las canciones, con sus identificadores asignados.
+     */
+    public void index(PlaylistVersion version, String playlistName, Collection<SongDto> songs) {
+        long playlistId = version.id();
+        List<SongDto> copy = List.copyOf(songs);
+        update(c -> {
+            Tombstone tombstone = playlistTombstones.get(playlistId);
+            if (tombstone != null && version.version() <= tombstone.version()) {
+                return;
+            }
+            c.playlistNames.putIfAbsent(playlistId, playlistName);
+            for (SongDto song : copy) {
+                if (!songTombstones.containsKey(song.id())) {
+                    c.remove(song.id());
+                    c.add(playlistId, song);
+                }
+            }
+        });
+    }
+
+    /**
+     * Elimina canciones del índice y las recuerda como eliminadas. Los identificadores que no estén indexados
+     * se ignoran.
+     * @param songIds Los identificadores de las canciones.
+     */
+    public void removeSongs(Collection<Long> songIds) {
+        List<Long> copy = List.copyOf(songIds);
+        lock.writeLock().lock();
+        try {
+            long expiresAt = System.nanoTime() + PlaylistReadModel.TOMBSTONE_TTL.toNanos();
+            copy.forEach(id -> songTombstones.put(id, expiresAt));
+            update(c -> {
+                copy.forEach(c::remove);
+                c.compactIfNeeded();
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Elimina del índice todas las canciones de una lista y la recuerda como eliminada.
+     * @param version La versión eliminada de la lista.
+     */
+    public void removePlaylist(PlaylistVersion version) {
+        long playlistId = version.id();
+        lock.writeLock().lock();
+        try {
+            playlistTombstones.put(playlistId,
+                    new Tombstone(version.version(), System.nanoTime() + PlaylistReadModel.TOMBSTONE_TTL.toNanos()));
+            update(c -> {
+                Set<Long> songs = c.songsByPlaylist.get(playlistId);
+                if (songs != null) {
+                    new ArrayList<>(songs).forEach(c::remove);
+                }
+                c.playlistNames.remove(playlistId);
+                c.compactIfNeeded();
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica una modificación al índice con el cerrojo de escritura y olvida las marcas de eliminación caducadas.
+     * Durante una reconstrucción, además la guarda para repetirla sobre el índice nuevo.
+     * @param change La modificación.
+     */
+    private void update(Consumer<Contents> change) {
+        lock.writeLock().lock();
+        try {
+            long now = System.nanoTime();
+            Iterator<Tombstone> expiredPlaylists = playlistTombstones.values().iterator();
+            while (expiredPlaylists.hasNext() && expiredPlaylists.next().expiresAt() - now <= 0) {
+                expiredPlaylists.remove();
+            }
+            Iterator<Long> expiredSongs = songTombstones.values().iterator();
+            while (expiredSongs.hasNext() && expiredSongs.next() - now <= 0) {
+                expiredSongs.remove();
+            }
+            if (pending != null) {
+                pending.add(change);
+            }
+            change.accept(contents);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca canciones que contengan todos los términos de la consulta.
+     * @param query El texto a buscar.
+     * @param offset El número de resultados a saltar.
+     * @param limit El número máximo de resultados a devolver.
+     * @return El total de coincidencias y la página de resultados, de mayor a menor relevancia.
+     */
+    public SongSearchResultDto search(String query, int offset, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty()) {
+            return new SongSearchResultDto(0, List.of());
+        }
+        lock.readLock().lock();
+        try {
+            Contents c = contents;
+            List<Cursor> perToken = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                Cursor cursor = c.match(token);
+                if (cursor == null) {
+                    return new SongSearchResultDto(0, List.of());
+                }
+                perToken.add(cursor);
+            }
+            // La intersección avanza primero el cursor con menos apariciones
+            perToken.sort(Comparator.comparingLong(cursor -> cursor.estimate));
+            Cursor result = perToken.size() == 1 ? perToken.get(0) : new Intersection(perToken.toArray(new Cursor[0]));
+            return c.topK(result, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Divide un texto en términos normalizados: sin tildes, en minúsculas y separados por cualquier carácter
+     * que no sea letra o dígito.
+     * @param text El texto a dividir; puede ser {@code null}.
+     * @return Los términos, en el orden en que aparecen.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(folded)).filter(t -> !t.isEmpty()).toList();
+    }
+
+    /**
+     * Estructuras del índice. Se modifican con el cerrojo de escritura y se consultan con el de lectura; las
+     * reconstrucciones llenan unas nuevas sin cerrojo y después las publican.
+     */
+    private static final class Contents {
+        final NavigableMap<String, Postings> terms = new TreeMap<>();
+        final List<IndexedSong> docs = new ArrayList<>();
+        final Map<Long, Integer> docBySong = new HashMap<>();
+        final Map<Long, Set<Long>> songsByPlaylist = new HashMap<>();
+        final Map<Long, String> playlistNames = new HashMap<>();
+        int deleted;
+
+        /**
+         * Añade una canción como documento nuevo.
+         * @param playlistId El identificador de la lista.
+         * @param song La canción.
+         */
+        void add(long playlistId, SongDto song) {
+            int doc = docs.size();
+            docs.add(new IndexedSong(playlistId, song));
+            docBySong.put(song.id(), doc);
+            songsByPlaylist.computeIfAbsent(playlistId, k -> new HashSet<>()).add(song.id());
+
+            Map<String, Integer> fields = new HashMap<>();
+            tokenize(song.titulo()).forEach(t -> fields.merge(t, TITULO, (a, b) -> a | b));
+            tokenize(song.artista()).forEach(t -> fields.merge(t, ARTISTA, (a, b) -> a | b));
+            tokenize(song.album()).forEach(t -> fields.merge(t, ALBUM, (a, b) -> a | b));
+            tokenize(song.genero()).forEach(t -> fields.merge(t, GENERO, (a, b) -> a | b));
+            fields.forEach((term, mask) -> terms.computeIfAbsent(term, k -> new Postings()).add(doc << FIELD_BITS | mask));
+        }
+
+        /**
+         * Marca como eliminado el documento de una canción.
+         * @param songId El identificador de la canción.
+         */
+        void remove(Long songId) {
+            Integer doc = docBySong.remove(songId);
+            if (doc == null) {
+                return;
+            }
+            IndexedSong song = docs.set(doc, null);
+            deleted++;
+            Set<Long> siblings = songsByPlaylist.get(song.playlistId());
+            if (siblings != null) {
+                siblings.remove(songId);
+                if (siblings.isEmpty()) {
+                    songsByPlaylist.remove(song.playlistId());
+                }
+            }
+        }
+
+        /**
+         * Reconstruye las estructuras a partir de los documentos vivos si los eliminados superan a los vivos.
+         */
+        void compactIfNeeded() {
+            if (deleted < 1024 || deleted < docBySong.size()) {
+                return;
+            }
+            List<IndexedSong> live = docs.stream().filter(Objects::nonNull).toList();
+            terms.clear();
+            docs.clear();
+            docBySong.clear();
+            songsByPlaylist.clear();
+            deleted = 0;
+            live.forEach(d -> add(d.playlistId(), d.song()));
+        }
+
+        /**
+         * Obtiene un cursor sobre los documentos que contienen un término de la consulta, exacto o como prefijo.
+         * Los términos más cortos que {@link #MIN_PREFIX_LENGTH} solo coinciden de forma exacta. Las listas de
+         * apariciones de los términos del prefijo ya están ordenadas por documento, así que se fusionan con un
+         * montículo de cursores, sin copiarlas ni reordenarlas.
+         * @param token El término de la consulta.
+         * @return El cursor, o {@code null} si ningún término coincide.
+         */
+        Cursor match(String token) {
+            if (token.length() < MIN_PREFIX_LENGTH) {
+                Postings exact = terms.get(token);
+                return exact == null ? null : new PostingsCursor(exact, true);
+            }
+            NavigableMap<String, Postings> range = terms.subMap(token, true, token + Character.MAX_VALUE, false);
+            if (range.isEmpty()) {
+                return null;
+            }
+            if (range.size() == 1) {
+                var entry = range.firstEntry();
+                return new PostingsCursor(entry.getValue(), entry.getKey().equals(token));
+            }
+            // Solo el primer término del rango puede ser igual al de la consulta
+            return new MergeCursor(range.values().toArray(new Postings[0]), range.firstKey().equals(token));
+        }
+
+        /**
+         * Recorre las coincidencias y selecciona la página pedida de los mejores resultados con un montículo acotado,
+         * sin guardar ni ordenar todas las coincidencias.
+         * @param matches Los documentos coincidentes, en orden de documento.
+         * @param offset El número de resultados a saltar.
+         * @param limit El número máximo de resultados a devolver.
+         * @return La página de resultados.
+         */
+        SongSearchResultDto topK(Cursor matches, int offset, int limit) {
+            int k = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+            // Cada resultado se codifica en un long que ordena por puntuación y, a igual puntuación, por documento
+            PriorityQueue<Long> heap = new PriorityQueue<>(Math.max(1, Math.min(k, 1024)));
+            int total = 0;
+            while (matches.next()) {
+                if (docs.get(matches.doc) == null) {
+                    continue;
+                }
+                total++;
+                long hit = (long) Float.floatToIntBits(matches.score) << 32 | (Integer.MAX_VALUE - matches.doc);
+                if (heap.size() < k) {
+                    heap.add(hit);
+                } else if (k > 0 && hit > heap.peek()) {
+                    heap.poll();
+                    heap.add(hit);
+                }
+            }
+            List<Long> best = new ArrayList<>(heap);
+            best.sort(Comparator.reverseOrder());
+            List<SongHitDto> page = new ArrayList<>(Math.max(0, Math.min(limit, best.size() - offset)));
+            for (int i = offset; i < best.size(); i++) {
+                long hit = best.get(i);
+                IndexedSong song = docs.get(Integer.MAX_VALUE - (int) hit);
+                page.add(new SongHitDto(playlistNames.get(song.playlistId()), song.song(), Float.intBitsToFloat((int) (hit >>> 32))));
+            }
+            return new SongSearchResultDto(total, page);
+        }
+    }
+
+    /**
+     * Hunde una posición del montículo de cursores, ordenado por el documento al que apunta cada cursor.
+     * @param heap Los índices de las listas de apariciones que aún tienen elementos.
+     * @param size El número de posiciones ocupadas del montículo.
+     * @param index La posición a hundir.
+     * @param lists Las listas de apariciones.
+     * @param cursors La posición actual en cada lista.
+     */
+    private static void siftDown(int[] heap, int size, int index, Postings[] lists, int[] cursors) {
+        int list = heap[index];
+        int doc = lists[list].entries[cursors[list]] >>> FIELD_BITS;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            int childDoc = lists[heap[child]].entries[cursors[heap[child]]] >>> FIELD_BITS;
+            if (child + 1 < size) {
+                int rightDoc = lists[heap[child + 1]].entries[cursors[heap[child + 1]]] >>> FIELD_BITS;
+                if (rightDoc < childDoc) {
+                    child++;
+                    childDoc = rightDoc;
+                }
+            }
+            if (doc <= childDoc) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = list;
+    }
+
+    /**
+     * Calcula la puntuación de una aparición según los campos en los que aparece el término.
+     * @param fields La máscara de campos.
+     * @param exact {@code true} si el término coincide exactamente; {@code false} si solo por prefijo.
+     * @return La puntuación de la aparición.
+     */
+    private static float score(int fields, boolean exact) {
+        float score = 0;
+        if ((fields & TITULO) != 0) score += 4;
+        if ((fields & ARTISTA) != 0) score += 3;
+        if ((fields & ALBUM) != 0) score += 2;
+        if ((fields & GENERO) != 0) score += 1;
+        return exact ? score : score / 2;
+    }
+
+    /**
+     * Documento del índice: una canción y la lista a la que pertenece.
+     * @param playlistId El identificador de la lista.
+     * @param song La canción.
+     */
+    private record IndexedSong(long playlistId, SongDto song) {}
+
+    /**
+     * Lista de apariciones de un término, ordenada por documento, en un array de enteros que crece bajo demanda.
+     */
+    private static final class Postings {
+        private int[] entries = new int[4];
+        private int size;
+
+        /**
+         * Añade una aparición al final de la lista.
+         * @param posting El documento y los campos codificados.
+         */
+        void add(int posting) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            entries[size++] = posting;
+        }
+    }
+
+    /**
+     * Marca de una lista eliminada.
+     * @param version La versión con la que se eliminó.
+     * @param expiresAt El instante, en {@link System#nanoTime()}, a partir del cual se olvida.
+     */
+    private record Tombstone(long version, long expiresAt) {}
+
+    /**
+     * Recorrido en orden de documento de los documentos que coinciden con una consulta o parte de ella.
+     * Tras cada llamada a {@link #next()} que devuelve {@code true}, {@link #doc} y {@link #score} describen
+     * el documento actual.
+     */
+    private abstract static class Cursor {
+        /** Número de apariciones que puede recorrer como máximo, para ordenar las intersecciones. */
+        final long estimate;
+        int doc = -1;
+        float score;
+
+        Cursor(long estimate) {
+            this.estimate = estimate;
+        }
+
+        /**
+         * Avanza al siguiente documento coincidente.
+         * @return {@code false} si no quedan documentos.
+         */
+        abstract boolean next();
+    }
+
+    /**
+     * Cursor sobre las apariciones de un único término.
+     */
+    private static final class PostingsCursor extends Cursor {
+        private final Postings postings;
+        private final boolean exact;
+        private int position = -1;
+
+        PostingsCursor(Postings postings, boolean exact) {
+            super(postings.size);
+            this.postings = postings;
+            this.exact = exact;
+        }
+
+        @Override
+        boolean next() {
+            if (++position >= postings.size) {
+                position = postings.size;
+                return false;
+            }
+            int posting = postings.entries[position];
+            doc = posting >>> FIELD_BITS;
+            score = score(posting & ((1 << FIELD_BITS) - 1), exact);
+            return true;
+        }
+    }
+
+    /**
+     * Cursor que fusiona las apariciones de los términos de un prefijo con un montículo, conservando la mejor
+     * puntuación de cada documento.
+     */
+    private static final class MergeCursor extends Cursor {
+        private final Postings[] lists;
+        private final boolean firstExact;
+        private final int[] cursors;
+        private final int[] heap;
+        private int live;
+
+        MergeCursor(Postings[] lists, boolean firstExact) {
+            super(Arrays.stream(lists).mapToLong(p -> p.size).sum());
+            this.lists = lists;
+            this.firstExact = firstExact;
+            this.cursors = new int[lists.length];
+            this.heap = new int[lists.length];
+            this.live = lists.length;
+            for (int i = 0; i < live; i++) {
+                heap[i] = i;
+            }
+            for (int i = live / 2 - 1; i >= 0; i--) {
+                siftDown(heap, live, i, lists, cursors);
+            }
+        }
+
+        @Override
+        boolean next() {
+            if (live == 0) {
+                return false;
+            }
+            int current = lists[heap[0]].entries[cursors[heap[0]]] >>> FIELD_BITS;
+            float best = 0;
+            while (live > 0) {
+                int list = heap[0];
+                int posting = lists[list].entries[cursors[list]];
+                if (posting >>> FIELD_BITS != current) {
+                    break;
+                }
+                best = Math.max(best, score(posting & ((1 << FIELD_BITS) - 1), list == 0 && firstExact));
+                if (++cursors[list] == lists[list].size) {
+                    heap[0] = heap[--live];
+                }
+                if (live > 0) {
+                    siftDown(heap, live, 0, lists, cursors);
+                }
+            }
+            doc = current;
+            score = best;
+            return true;
+        }
+    }
+
+    /**
+     * Cursor sobre los documentos comunes a varios cursores, con la suma de sus puntuaciones. Avanza cada cursor
+     * hasta el mayor documento visto hasta que todos coinciden, sin guardar los documentos intermedios.
+     */
+    private static final class Intersection extends Cursor {
+        private final Cursor[] parts;
+        private boolean started;
+        private boolean done;
+
+        Intersection(Cursor[] parts) {
+            super(parts[0].estimate);
+            this.parts = parts;
+        }
+
+        @Override
+        boolean next() {
+            if (done) {
+                return false;
+            }
+            if (!started) {
+                started = true;
+                for (Cursor part : parts) {
+                    if (!part.next()) {
+                        done = true;
+                        return false;
+                    }
+                }
+            } else if (!parts[0].next()) {
+                done = true;
+                return false;
+            }
+            int target = parts[0].doc;
+            int agreed = 1;
+            for (int i = 1; agreed < parts.length; i = (i + 1) % parts.length) {
+                Cursor part = parts[i];
+                while (part.doc < target) {
+                    if (!part.next()) {
+                        done = true;
+                        return false;
+                    }
+                }
+                if (part.doc == target) {
+                    agreed++;
+                } else {
+                    target = part.doc;
+                    agreed = 1;
+                }
+            }
+            float sum = 0;
+            for (Cursor part : parts) {
+                sum += part.score;
+            }
+            doc = target;
+            score = sum;
+            return true;
+        }
+    }
+}
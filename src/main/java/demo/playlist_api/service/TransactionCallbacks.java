@@ -0,0 +1,47 @@
+package demo.playlist_api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utilidades para ejecutar acciones ligadas al ciclo de vida de la transacción actual.
+ * Esta clase no está pensada para ser instanciada.
+ */
+public final class TransactionCallbacks {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionCallbacks.class);
+
+    /**
+     * Constructor privado para evitar la instanciación de la clase de utilidad.
+     */
+    private TransactionCallbacks() {}
+
+    /**
+     * Ejecuta una acción cuando la transacción actual se confirme.
+     * Si no hay ninguna transacción activa, la acción se ejecuta inmediatamente.
+     * Como la escritura ya está confirmada, un fallo de la acción se registra en lugar de propagarse.
+     * @param action La acción a ejecutar.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runConfirmed(action);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runConfirmed(action);
+            }
+        });
+    }
+
+    private static void runConfirmed(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            log.warn("Ha fallado una acción posterior a la confirmación de la transacción", e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package demo.playlist_api.service;
+
+import demo.playlist_api.domain.repository.PlaylistVersion;
+import demo.playlist_api.web.dto.PlaylistDto;
+
+/**
+ * Lista de reproducción mapeada junto con la versión de la entidad de la que se obtuvo.
+ * Permite derivar validadores HTTP (ETag, Last-Modified) coherentes con el cuerpo servido.
+ * @param playlist La lista de reproducción mapeada.
+ * @param version La identidad y la versión de la entidad en el momento de la carga.
+ */
+public record VersionedPlaylist(PlaylistDto playlist, PlaylistVersion version) {}
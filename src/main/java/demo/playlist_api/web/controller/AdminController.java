@@ -0,0 +1,85 @@
+package demo.playlist_api.web.controller;
+
+import demo.playlist_api.service.PlaylistDtoCache;
+import demo.playlist_api.service.PlaylistReadModel;
+import demo.playlist_api.service.SecondLevelCacheStatistics;
+import demo.playlist_api.web.dto.CacheRegionStatsDto;
+import demo.playlist_api.web.dto.CacheStatsDto;
+import demo.playlist_api.web.dto.ReadModelCheckDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Expone operaciones de administración y diagnóstico de la aplicación.
+ * Todos los puntos finales requieren el rol ADMIN.
+ */
+@RestController
+@RequestMapping("/admin")
+@Tag(name = "Admin", description = "APIs de administración y diagnóstico")
+public class AdminController {
+
+    private final PlaylistDtoCache playlistCache;
+    private final SecondLevelCacheStatistics secondLevelCache;
+    private final PlaylistReadModel readModel;
+
+    /**
+     * Construye un AdminController.
+     * @param playlistCache La caché de listas de reproducción mapeadas.
+     * @param secondLevelCache Las estadísticas de la caché de segundo nivel de Hibernate.
+     * @param readModel La réplica de lectura en memoria.
+     */
+    public AdminController(PlaylistDtoCache playlistCache, SecondLevelCacheStatistics secondLevelCache,
+                           PlaylistReadModel readModel) {
+        this.playlistCache = playlistCache;
+        this.secondLevelCache = secondLevelCache;
+        this.readModel = readModel;
+    }
+
+    /**
+     * Recupera las estadísticas de la caché de listas de reproducción.
+     * @return Los aciertos, fallos, desalojos y tamaño de la caché.
+     */
+    @GetMapping("/caches/playlists")
+    @Operation(summary = "Ver las estadísticas de la caché de listas")
+    public ResponseEntity<CacheStatsDto> playlistCacheStats() {
+        return ResponseEntity.ok(playlistCache.stats());
+    }
+
+    /**
+     * Recupera las estadísticas de cada región de la caché de segundo nivel de Hibernate.
+     * @return Los aciertos, fallos y escrituras de cada región.
+     */
+    @GetMapping("/caches/regions")
+    @Operation(summary = "Ver las estadísticas de la caché de segundo nivel por región")
+    public ResponseEntity<List<CacheRegionStatsDto>> secondLevelCacheStats() {
+        return ResponseEntity.ok(secondLevelCache.regions());
+    }
+
+    /**
+     * Compara la réplica de lectura en memoria con la base de datos.
+     * @return Las listas ausentes, desactualizadas o sobrantes en la réplica.
+     */
+    @GetMapping("/read-model")
+    @Operation(summary = "Comprobar la réplica de lectura en memoria contra la base de datos")
+    public ResponseEntity<ReadModelCheckDto> readModelCheck() {
+        return ResponseEntity.ok(readModel.check());
+    }
+
+    /**
+     * Reconstruye la réplica de lectura en memoria desde la base de datos y la vuelve a comprobar.
+     * @return El resultado de la comprobación tras reconstruirla.
+     */
+    @PostMapping("/read-model/rebuild")
+    @Operation(summary = "Reconstruir la réplica de lectura en memoria")
+    public ResponseEntity<ReadModelCheckDto> rebuildReadModel() {
+        readModel.rebuild();
+        return ResponseEntity.ok(readModel.check());
+    }
+}
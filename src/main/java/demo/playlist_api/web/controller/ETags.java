@@ -0,0 +1,93 @@
+package demo.playlist_api.web.controller;
+
+import demo.playlist_api.domain.repository.PlaylistVersion;
+import demo.playlist_api.web.exception.PreconditionFailedException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilidades para convertir la versión de una lista de reproducción en ETag HTTP y viceversa.
+ * Las ETag son fuertes y tienen la forma {@code "<id>-<version>"}.
+ * Esta clase no está pensada para ser instanciada.
+ */
+final class ETags {
+
+    /**
+     * Constructor privado para evitar la instanciación de la clase de utilidad.
+     */
+    private ETags() {}
+
+    /**
+     * Calcula la ETag de una versión de lista.
+     * @param version La identidad y versión de la lista.
+     * @return La ETag fuerte, entre comillas.
+     */
+    static String of(PlaylistVersion version) {
+        return "\"" + version.id() + "-" + version.version() + "\"";
+    }
+
+    /**
+     * Interpreta el valor de una cabecera {@code If-Match}, que puede contener varias ETag separadas por comas.
+     * {@code If-Match} exige comparación fuerte, así que las ETag débiles ({@code W/"..."}) nunca coinciden,
+     * igual que las que no ha generado esta API.
+     * @param ifMatch El valor de la cabecera, o {@code null} si no se envió.
+     * @return Las versiones aceptadas; {@code null} si la cabecera no se envió o es {@code *} (cualquier versión).
+     * @throws PreconditionFailedException si la cabecera está mal formada o no contiene ninguna ETag fuerte
+     *         generada por esta API, ya que entonces no puede coincidir con ninguna versión.
+     */
+    static List<PlaylistVersion> parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        List<PlaylistVersion> versions = new ArrayList<>();
+        int i = 0;
+        while (i < ifMatch.length()) {
+            char c = ifMatch.charAt(i);
+            if (c == ',' || c == ' ' || c == '\t') {
+                i++;
+                continue;
+            }
+            boolean weak = ifMatch.startsWith("W/", i);
+            int open = weak ? i + 2 : i;
+            int close = open < ifMatch.length() && ifMatch.charAt(open) == '"' ? ifMatch.indexOf('"', open + 1) : -1;
+            if (close < 0) {
+                throw mismatch();
+            }
+            PlaylistVersion version = weak ? null : parse(ifMatch.substring(open + 1, close));
+            if (version != null) {
+                versions.add(version);
+            }
+            i = close + 1;
+        }
+        if (versions.isEmpty()) {
+            throw mismatch();
+        }
+        return versions;
+    }
+
+    /**
+     * Interpreta el contenido de una ETag fuerte, sin comillas.
+     * @param tag El contenido de la ETag.
+     * @return La versión que identifica, o {@code null} si no tiene la forma {@code <id>-<version>}.
+     */
+    private static PlaylistVersion parse(String tag) {
+        int dash = tag.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            return new PlaylistVersion(Long.parseLong(tag.substring(0, dash)), Long.parseLong(tag.substring(dash + 1)), null);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Crea la excepción para un {@code If-Match} que no puede coincidir con ninguna versión.
+     * @return La excepción a lanzar.
+     */
+    private static PreconditionFailedException mismatch() {
+        return new PreconditionFailedException("La cabecera If-Match no corresponde a la versión actual de la lista");
+    }
+}
@@ -0,0 +1,76 @@
+package demo.playlist_api.web.controller;
+
+import demo.playlist_api.config.ChangeFeedProperties;
+import demo.playlist_api.service.PlaylistChangeFeed;
+import demo.playlist_api.web.exception.ApiError;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Publica los cambios de las listas de reproducción como Server-Sent Events, para que los clientes se
+ * sincronicen de forma incremental en lugar de consultar periódicamente {@code GET /lists}.
+ */
+@RestController
+@RequestMapping("/lists")
+@Tag(name = "Playlist changes", description = "Flujo de cambios de las listas de reproducción")
+public class PlaylistChangeController {
+
+    /** Nombre del evento con el que termina el flujo de un cliente que se ha quedado atrás. */
+    public static final String RESET_EVENT = "RESET";
+
+    private final PlaylistChangeFeed feed;
+    private final Duration heartbeat;
+
+    /**
+     * Construye un PlaylistChangeController.
+     * @param feed El flujo de cambios.
+     * @param properties El intervalo de los comentarios que mantienen viva la conexión.
+     */
+    public PlaylistChangeController(PlaylistChangeFeed feed, ChangeFeedProperties properties) {
+        this.feed = feed;
+        this.heartbeat = properties.heartbeat();
+    }
+
+    /**
+     * Transmite los cambios de las listas de reproducción a medida que se confirman.
+     * Cada evento lleva como identificador su secuencia y como nombre su tipo ({@code CREADA}, {@code ACTUALIZADA}
+     * o {@code ELIMINADA}). Un cliente que se reconecta con {@code Last-Event-ID} (o {@code after}) recibe los
+     * cambios que se perdió; sin ninguno de los dos, solo los cambios a partir de ahora. Si los cambios pendientes
+     * ya no se conservan, o el cliente se queda atrás mientras está conectado, el flujo termina con un evento
+     * {@value #RESET_EVENT}: el cliente debe volver a leer {@code GET /lists} y suscribirse sin secuencia.
+     * @param lastEventId La secuencia del último evento recibido, que envía el navegador al reconectar.
+     * @param after La secuencia del último cambio conocido, para clientes que no usan {@code Last-Event-ID}.
+     * @return Los cambios, intercalados con comentarios periódicos que mantienen viva la conexión.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Recibir los cambios de las listas como Server-Sent Events")
+    public Flux<ServerSentEvent<?>> changes(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+                                            @RequestParam(required = false) Long after) {
+        long from = lastEventId != null ? lastEventId : after != null ? after : feed.lastSequence();
+        Flux<ServerSentEvent<?>> changes = feed.changes(from)
+                .<ServerSentEvent<?>>map(change -> ServerSentEvent.builder(change)
+                        .id(Long.toString(change.secuencia()))
+                        .event(change.tipo().name())
+                        .build())
+                .onErrorResume(PlaylistChangeFeed.OverrunException.class, e -> Mono.just(ServerSentEvent
+                        .builder(ApiError.of(HttpStatus.GONE.getReasonPhrase(), e.getMessage(), HttpStatus.GONE.value()))
+                        .event(RESET_EVENT)
+                        .build()));
+        Flux<ServerSentEvent<?>> heartbeats = Flux.interval(heartbeat)
+                .map(i -> ServerSentEvent.builder().comment("keepalive").build());
+        return Flux.merge(changes, heartbeats)
+                .takeUntil(event -> RESET_EVENT.equals(event.event()));
+    }
+}
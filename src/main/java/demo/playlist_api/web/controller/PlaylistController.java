@@ -1,15 +1,43 @@
 package demo.playlist_api.web.controller;
 
+import demo.playlist_api.domain.repository.PlaylistVersion;
 import demo.playlist_api.service.PlaylistService;
+import demo.playlist_api.service.SongChange;
+import demo.playlist_api.service.VersionedPlaylist;
+import demo.playlist_api.web.dto.BulkImportResultDto;
+import demo.playlist_api.web.dto.MoveSongDto;
 import demo.playlist_api.web.dto.PlaylistDto;
+import demo.playlist_api.web.dto.PlaylistSummaryDto;
+import demo.playlist_api.web.dto.SongDto;
+import demo.playlist_api.web.dto.SongPatchDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.List;
 
@@ -22,14 +50,34 @@ import java.util.List;
 @Tag(name = "Lists", description = "APIs para gestionar listas de reproducción")
 public class PlaylistController {
 
+    /**
+     * Tipo de contenido de la exportación: un documento JSON por línea.
+     */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
     private final PlaylistService service;
+    private final ObjectWriter exportWriter;
+    private final ObjectReader importReader;
+    private final int defaultLimit;
+    private final int maxLimit;
 
     /**
      * Construye un PlaylistController con un PlaylistService.
      * @param service El servicio para las operaciones de listas de reproducción.
+     * @param objectMapper El mapeador JSON de la aplicación, usado para escribir la exportación y leer importaciones NDJSON.
+     * @param defaultLimit El tamaño de página usado cuando el cliente no indica {@code limit}.
+     * @param maxLimit El tamaño de página máximo permitido.
      */
-    public PlaylistController(PlaylistService service) {
+    public PlaylistController(PlaylistService service,
+                              ObjectMapper objectMapper,
+                              @Value("${playlist.pagination.default-limit:50}") int defaultLimit,
+                              @Value("${playlist.pagination.max-limit:500}") int maxLimit) {
         this.service = service;
+        this.exportWriter = objectMapper.writerFor(PlaylistDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.importReader = objectMapper.readerFor(PlaylistDto.class);
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
     }
 
     /**
@@ -47,35 +95,274 @@ public class PlaylistController {
     }
 
     /**
-     * Recupera todas las listas de reproducción.
-     * @return Una lista de todas las listas de reproducción.
+     * Importa un conjunto de listas de reproducción enviadas como array JSON.
+     * @param dtos Las listas de reproducción a importar.
+     * @return El resultado de la importación, con el estado de cada elemento.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Importar listas de forma masiva (array JSON)")
+    public ResponseEntity<BulkImportResultDto> bulkImport(@RequestBody List<PlaylistDto> dtos) {
+        return ResponseEntity.ok(service.importAll(dtos.iterator()));
+    }
+
+    /**
+     * Importa un conjunto de listas de reproducción enviadas como NDJSON (una lista por línea).
+     * Los elementos se leen del cuerpo de la petición a medida que se importan.
+     * @param body El cuerpo de la petición.
+     * @return El resultado de la importación, con el estado de cada elemento.
+     * @throws IOException si falla la lectura del cuerpo.
+     * @throws IllegalArgumentException si alguna línea no es JSON válido.
+     */
+    @PostMapping(value = "/bulk", consumes = APPLICATION_NDJSON)
+    @Operation(summary = "Importar listas de forma masiva (NDJSON)")
+    public ResponseEntity<BulkImportResultDto> bulkImportNdjson(InputStream body) throws IOException {
+        try (MappingIterator<PlaylistDto> items = importReader.readValues(body)) {
+            return ResponseEntity.ok(service.importAll(items));
+        } catch (RuntimeJsonMappingException | JsonProcessingException e) {
+            throw new IllegalArgumentException("NDJSON inválido: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recupera una página de listas de reproducción ordenadas por nombre.
+     * Si hay más resultados, la respuesta incluye una cabecera {@code Link} con {@code rel="next"}
+     * que apunta a la siguiente página.
+     * @param after El nombre de la última lista recibida (cursor); se omite para la primera página.
+     * @param limit El tamaño de página solicitado; se ajusta al rango [1, máximo configurado].
+     * @return Una página de listas de reproducción.
      */
     @GetMapping
-    @Operation(summary = "Ver todas las listas")
-    public ResponseEntity<List<PlaylistDto>> getAll() {
-        return ResponseEntity.ok(service.findAll());
+    @Operation(summary = "Ver todas las listas (paginado por cursor)")
+    public ResponseEntity<List<PlaylistDto>> getAll(@RequestParam(required = false) String after,
+                                                    @RequestParam(required = false) Integer limit) {
+        int size = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        List<PlaylistDto> page = service.findAll(after, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == size) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", page.get(page.size() - 1).nombre())
+                    .replaceQueryParam("limit", size)
+                    .build().encode().toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page);
+    }
+
+    /**
+     * Recupera una página de resúmenes de listas de reproducción (nombre, descripción, número de canciones,
+     * géneros y fecha de modificación), sin sus canciones.
+     * Si hay más resultados, la respuesta incluye una cabecera {@code Link} con {@code rel="next"}.
+     * @param sort El criterio de orden: {@code nombre}, {@code actualizada} o {@code canciones}, seguido
+     *             opcionalmente de {@code ,desc} para orden descendente.
+     * @param page El número de página, empezando en 0.
+     * @param limit El tamaño de página solicitado; se ajusta al rango [1, máximo configurado].
+     * @return Una página de resúmenes.
+     * @throws IllegalArgumentException si el criterio de orden no es válido o la página es negativa.
+     */
+    @GetMapping("/summary")
+    @Operation(summary = "Ver el resumen de las listas, sin canciones (paginado y ordenable)")
+    public ResponseEntity<List<PlaylistSummaryDto>> getSummaries(@RequestParam(defaultValue = "nombre") String sort,
+                                                                 @RequestParam(defaultValue = "0") int page,
+                                                                 @RequestParam(required = false) Integer limit) {
+        if (page < 0) {
+            throw new IllegalArgumentException("La página no puede ser negativa");
+        }
+        int size = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        Slice<PlaylistSummaryDto> summaries = service.findSummaries(PageRequest.of(page, size, summarySort(sort)));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (summaries.hasNext()) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("page", page + 1)
+                    .replaceQueryParam("limit", size)
+                    .build().encode().toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(summaries.getContent());
+    }
+
+    /**
+     * Traduce el criterio de orden de los resúmenes a un orden sobre columnas indexadas de la lista.
+     * Se añade el identificador como desempate para que las páginas sean estables.
+     * @param sort El criterio recibido, p. ej. {@code actualizada,desc}.
+     * @return El orden correspondiente.
+     * @throws IllegalArgumentException si el criterio no es válido.
+     */
+    private static Sort summarySort(String sort) {
+        String[] parts = sort.split(",", 2);
+        String property = switch (parts[0].trim()) {
+            case "nombre" -> "nameKey";
+            case "actualizada" -> "updatedAt";
+            case "canciones" -> "songCount";
+            default -> throw new IllegalArgumentException("Orden no válido: '" + parts[0] + "'");
+        };
+        Sort.Direction direction = parts.length == 1 ? Sort.Direction.ASC
+                : Sort.Direction.fromOptionalString(parts[1].trim())
+                        .orElseThrow(() -> new IllegalArgumentException("Dirección de orden no válida: '" + parts[1] + "'"));
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * Exporta todas las listas de reproducción como NDJSON (una lista por línea).
+     * Cada lista se serializa directamente en la respuesta a medida que se lee de la base de datos,
+     * sin construir la colección completa en memoria.
+     * @param response La respuesta HTTP en la que se escribe la exportación.
+     * @throws IOException si falla la escritura en la respuesta.
+     */
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON)
+    @Operation(summary = "Exportar todas las listas en formato NDJSON")
+    public void export(HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        try (JsonGenerator generator = exportWriter.createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(new SerializedString(""));
+            service.exportAll(dto -> {
+                try {
+                    exportWriter.writeValue(generator, dto);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
     }
 
     /**
      * Recupera una lista de reproducción por su nombre.
+     * La respuesta incluye una ETag fuerte derivada del identificador y la versión de la lista, y
+     * {@code Last-Modified} a partir de su fecha de actualización. En las peticiones condicionales
+     * ({@code If-None-Match} / {@code If-Modified-Since}) solo se consulta la versión de la lista y,
+     * si no ha cambiado, se responde 304 sin cargar ni serializar sus canciones.
      * @param listName El nombre de la lista de reproducción.
-     * @return La lista de reproducción con el nombre especificado.
+     * @param request La petición actual, usada para evaluar las cabeceras condicionales.
+     * @return La lista de reproducción con el nombre especificado, o 304 Not Modified.
      */
     @GetMapping("/{listName}")
     @Operation(summary = "Ver una lista por nombre")
-    public ResponseEntity<PlaylistDto> getByName(@PathVariable String listName) {
-        return ResponseEntity.ok(service.findByName(listName));
+    public ResponseEntity<PlaylistDto> getByName(@PathVariable String listName, ServletWebRequest request) {
+        VersionedPlaylist playlist;
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            PlaylistVersion current = service.findVersion(listName);
+            if (request.checkNotModified(ETags.of(current), current.updatedAt().toEpochMilli())) {
+                return null;
+            }
+            playlist = service.findVersionedByName(listName, current);
+        } else {
+            playlist = service.findVersionedByName(listName);
+        }
+        return ResponseEntity.ok()
+                .eTag(ETags.of(playlist.version()))
+                .lastModified(playlist.version().updatedAt())
+                .body(playlist.playlist());
     }
 
     /**
      * Elimina una lista de reproducción por su nombre.
+     * Si se envía {@code If-Match}, la lista solo se elimina si sigue en la versión indicada por la ETag.
      * @param listName El nombre de la lista de reproducción a eliminar.
+     * @param ifMatch La ETag esperada, o {@code *}; opcional.
      * @return Una respuesta sin contenido.
      */
     @DeleteMapping("/{listName}")
     @Operation(summary = "Eliminar una lista por nombre")
-    public ResponseEntity<Void> deleteByName(@PathVariable String listName) {
-        service.deleteByName(listName);
+    public ResponseEntity<Void> deleteByName(@PathVariable String listName,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        service.deleteByName(listName, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Elimina varias listas de reproducción en una sola transacción: si alguna no existe, no se elimina ninguna.
+     * @param names Los nombres de las listas a eliminar; como máximo el tamaño de página máximo.
+     * @return Una respuesta sin contenido.
+     * @throws IllegalArgumentException si no se indica ningún nombre o se indican demasiados.
+     */
+    @DeleteMapping
+    @Operation(summary = "Eliminar varias listas por nombre")
+    public ResponseEntity<Void> deleteAllByName(@RequestParam List<String> names) {
+        if (names.isEmpty() || names.size() > maxLimit) {
+            throw new IllegalArgumentException("Se deben indicar entre 1 y " + maxLimit + " nombres");
+        }
+        service.deleteAllByName(names);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Añade una canción al final de una lista de reproducción sin reescribir el resto de canciones.
+     * @param listName El nombre de la lista de reproducción.
+     * @param song La canción a añadir.
+     * @param ifMatch La ETag esperada de la lista, o {@code *}; opcional.
+     * @return La canción creada, con su identificador, y la nueva ETag de la lista.
+     */
+    @PostMapping("/{listName}/songs")
+    @Operation(summary = "Añadir una canción a una lista")
+    public ResponseEntity<SongDto> addSong(@PathVariable String listName, @Valid @RequestBody SongDto song,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        SongChange change = service.addSongs(listName, List.of(song), ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(ETags.of(change.version()))
+                .body(change.canciones().get(0));
+    }
+
+    /**
+     * Elimina una canción de una lista de reproducción.
+     * @param listName El nombre de la lista de reproducción.
+     * @param songId El identificador de la canción.
+     * @param ifMatch La ETag esperada de la lista, o {@code *}; opcional.
+     * @return Una respuesta sin contenido con la nueva ETag de la lista.
+     */
+    @DeleteMapping("/{listName}/songs/{songId}")
+    @Operation(summary = "Eliminar una canción de una lista")
+    public ResponseEntity<Void> removeSong(@PathVariable String listName, @PathVariable Long songId,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        PlaylistVersion version = service.removeSong(listName, songId, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.noContent().eTag(ETags.of(version)).build();
+    }
+
+    /**
+     * Añade y elimina varias canciones de una lista de reproducción en una sola transacción.
+     * @param listName El nombre de la lista de reproducción.
+     * @param patch Las canciones a añadir y los identificadores de las canciones a eliminar.
+     * @param ifMatch La ETag esperada de la lista, o {@code *}; opcional.
+     * @return Las canciones añadidas, con sus identificadores, y la nueva ETag de la lista.
+     */
+    @PatchMapping("/{listName}/songs")
+    @Operation(summary = "Añadir y eliminar canciones de una lista en lote")
+    public ResponseEntity<List<SongDto>> patchSongs(@PathVariable String listName, @Valid @RequestBody SongPatchDto patch,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        SongChange change = service.patchSongs(listName, patch, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(change.version())).body(change.canciones());
+    }
+
+    /**
+     * Mueve una canción detrás de otra, o al principio de la lista, actualizando solo la fila de esa canción.
+     * @param listName El nombre de la lista de reproducción.
+     * @param songId El identificador de la canción a mover.
+     * @param move La canción tras la que se colocará ({@code despuesDe}); {@code null} para el principio.
+     * @param ifMatch La ETag esperada de la lista, o {@code *}; opcional.
+     * @return Una respuesta sin contenido con la nueva ETag de la lista.
+     */
+    @PatchMapping("/{listName}/songs/{songId}/move")
+    @Operation(summary = "Mover una canción dentro de una lista")
+    public ResponseEntity<Void> moveSong(@PathVariable String listName, @PathVariable Long songId,
+                                         @RequestBody MoveSongDto move,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        PlaylistVersion version = service.moveSong(listName, songId, move.despuesDe(), ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.noContent().eTag(ETags.of(version)).build();
+    }
+
+    /**
+     * Recupera un rango de canciones de una lista en su orden.
+     * @param listName El nombre de la lista de reproducción.
+     * @param offset El número de canciones a saltar; por defecto 0.
+     * @param limit El número de canciones solicitado; se ajusta al rango [1, máximo configurado].
+     * @return Las canciones del rango.
+     */
+    @GetMapping("/{listName}/songs")
+    @Operation(summary = "Ver un rango de canciones de una lista")
+    public ResponseEntity<List<SongDto>> getSongs(@PathVariable String listName,
+                                                  @RequestParam(defaultValue = "0") int offset,
+                                                  @RequestParam(required = false) Integer limit) {
+        int size = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        return ResponseEntity.ok(service.findSongs(listName, Math.max(0, offset), size));
+    }
 }
@@ -0,0 +1,62 @@
+package demo.playlist_api.web.controller;
+
+import demo.playlist_api.service.ReactivePlaylistReader;
+import demo.playlist_api.web.dto.PlaylistDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Puntos finales reactivos de solo lectura para las listas de reproducción, opcionales
+ * ({@code playlist.reactive.enabled}).
+ * El hilo de la petición se libera en cuanto se suscribe a la respuesta y los recorridos se transmiten con
+ * contrapresión, de modo que un cliente lento no retiene memoria. Solo son no bloqueantes de extremo a extremo
+ * con la réplica en memoria habilitada; sin ella, las consultas JPA se ejecutan aparte, en
+ * {@link ReactivePlaylistReader}. Las escrituras siguen en {@link PlaylistController}.
+ */
+@RestController
+@ConditionalOnProperty(name = "playlist.reactive.enabled", havingValue = "true")
+@RequestMapping("/reactive/lists")
+@Tag(name = "Reactive lists", description = "APIs reactivas de lectura de listas de reproducción")
+public class ReactivePlaylistController {
+
+    private final ReactivePlaylistReader reader;
+
+    /**
+     * Construye un ReactivePlaylistController.
+     * @param reader El lector reactivo de listas de reproducción.
+     */
+    public ReactivePlaylistController(ReactivePlaylistReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Transmite las listas de reproducción en orden de nombre, una por línea (NDJSON) o como eventos SSE.
+     * @param after El nombre a partir del cual empezar (exclusivo); por defecto, desde el principio.
+     * @return Las listas de reproducción, leídas a medida que el cliente las consume.
+     */
+    @GetMapping(produces = {PlaylistController.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @Operation(summary = "Transmitir listas de reproducción con contrapresión")
+    public Flux<PlaylistDto> stream(@RequestParam(required = false) String after) {
+        return reader.findAll(after);
+    }
+
+    /**
+     * Obtiene una lista de reproducción por su nombre sin retener el hilo de la petición.
+     * @param listName El nombre de la lista.
+     * @return La lista de reproducción, o 404 Not Found si no existe.
+     */
+    @GetMapping("/{listName}")
+    @Operation(summary = "Obtener lista por nombre de forma reactiva")
+    public Mono<PlaylistDto> findByName(@PathVariable String listName) {
+        return reader.findByName(listName);
+    }
+}
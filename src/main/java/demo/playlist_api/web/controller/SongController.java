@@ -0,0 +1,56 @@
+package demo.playlist_api.web.controller;
+
+import demo.playlist_api.service.SongSearchIndex;
+import demo.playlist_api.web.dto.SongSearchResultDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Gestiona las operaciones sobre canciones de todas las listas de reproducción.
+ */
+@RestController
+@RequestMapping("/songs")
+@Tag(name = "Songs", description = "APIs para buscar canciones")
+public class SongController {
+
+    private final SongSearchIndex searchIndex;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    /**
+     * Construye un SongController.
+     * @param searchIndex El índice de búsqueda de canciones.
+     * @param defaultLimit El tamaño de página usado cuando el cliente no indica {@code limit}.
+     * @param maxLimit El tamaño de página máximo permitido.
+     */
+    public SongController(SongSearchIndex searchIndex,
+                          @Value("${playlist.pagination.default-limit:50}") int defaultLimit,
+                          @Value("${playlist.pagination.max-limit:500}") int maxLimit) {
+        this.searchIndex = searchIndex;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Busca canciones por título, artista, álbum o género en todas las listas.
+     * La búsqueda ignora mayúsculas y tildes, y cada palabra encuentra también las que empiezan por ella.
+     * @param q El texto a buscar.
+     * @param offset El número de resultados a saltar; por defecto 0.
+     * @param limit El número de resultados solicitado; se ajusta al rango [1, máximo configurado].
+     * @return El total de coincidencias y la página de resultados, de mayor a menor relevancia.
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Buscar canciones en todas las listas")
+    public ResponseEntity<SongSearchResultDto> search(@RequestParam String q,
+                                                      @RequestParam(defaultValue = "0") int offset,
+                                                      @RequestParam(required = false) Integer limit) {
+        int size = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        return ResponseEntity.ok(searchIndex.search(q, Math.max(0, offset), size));
+    }
+}
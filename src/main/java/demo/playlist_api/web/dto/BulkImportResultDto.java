@@ -0,0 +1,19 @@
+package demo.playlist_api.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+/**
+ * DTO con el resultado de una importación masiva de listas de reproducción.
+ * @param creadas El número de listas creadas.
+ * @param conflictos El número de listas rechazadas porque el nombre ya existía.
+ * @param invalidas El número de listas rechazadas por no superar la validación.
+ * @param resultados El resultado de cada elemento, en el mismo orden que la entrada.
+ */
+@Schema(description = "Resultado de una importación masiva")
+public record BulkImportResultDto(
+        int creadas,
+        int conflictos,
+        int invalidas,
+        List<BulkItemResultDto> resultados
+) {}
@@ -0,0 +1,31 @@
+package demo.playlist_api.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO con el resultado de importar un elemento concreto en una importación masiva.
+ * @param indice La posición del elemento en la entrada, empezando en 0.
+ * @param nombre El nombre de la lista de reproducción.
+ * @param estado El resultado de la importación del elemento.
+ * @param mensaje El motivo del rechazo, o {@code null} si la lista se creó.
+ */
+@Schema(description = "Resultado de un elemento de la importación masiva")
+public record BulkItemResultDto(
+        int indice,
+        String nombre,
+        Estado estado,
+        String mensaje
+) {
+
+    /**
+     * Posibles resultados de la importación de un elemento.
+     */
+    public enum Estado {
+        /** La lista se creó correctamente. */
+        CREADA,
+        /** Ya existía una lista con el mismo nombre, o se repetía dentro de la importación. */
+        CONFLICTO,
+        /** La lista no superó la validación. */
+        INVALIDA
+    }
+}
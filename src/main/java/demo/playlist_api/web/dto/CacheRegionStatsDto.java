@@ -0,0 +1,20 @@
+package demo.playlist_api.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO con las estadísticas de una región de la caché de segundo nivel de Hibernate.
+ * @param region El nombre de la región.
+ * @param aciertos El número de lecturas servidas desde la región.
+ * @param fallos El número de lecturas que no encontraron la entrada en la región.
+ * @param escrituras El número de entradas guardadas en la región.
+ * @param tasaAciertos La proporción de lecturas servidas desde la región, entre 0 y 1.
+ */
+@Schema(description = "Estadísticas de una región de la caché de segundo nivel")
+public record CacheRegionStatsDto(
+        String region,
+        long aciertos,
+        long fallos,
+        long escrituras,
+        double tasaAciertos
+) {}
@@ -0,0 +1,20 @@
+package demo.playlist_api.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO con las estadísticas de una caché.
+ * @param tamano El número estimado de entradas en la caché.
+ * @param aciertos El número de lecturas servidas desde la caché.
+ * @param fallos El número de lecturas que tuvieron que cargar el valor.
+ * @param desalojos El número de entradas desalojadas por tamaño o caducidad.
+ * @param tasaAciertos La proporción de lecturas servidas desde la caché, entre 0 y 1.
+ */
+@Schema(description = "Estadísticas de caché")
+public record CacheStatsDto(
+        long tamano,
+        long aciertos,
+        long fallos,
+        long desalojos,
+        double tasaAciertos
+) {}
@@ -0,0 +1,12 @@
+package demo.playlist_api.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO para mover una canción dentro de su lista de reproducción.
+ * @param despuesDe El identificador de la canción tras la que se colocará; {@code null} para moverla al principio.
+ */
+@Schema(description = "Nueva ubicación de una canción")
+public record MoveSongDto(
+        @Schema(example = "42") Long despuesDe
+) {}
@@ -0,0 +1,36 @@
+package demo.playlist_api.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+
+/**
+ * DTO con un cambio confirmado de una lista de reproducción, tal como se publica en {@code GET /lists/changes}
+ * y se envía a otros sistemas desde el outbox.
+ * @param secuencia El número de secuencia del cambio; crece con cada cambio y sirve para reanudar el flujo.
+ *                  En los eventos del outbox es el identificador del evento.
+ * @param tipo El tipo de cambio.
+ * @param nombre El nombre de la lista, tal como está guardado.
+ * @param version La versión de la lista tras el cambio; en los borrados, la versión que se eliminó.
+ * @param fecha El momento en que se confirmó el cambio.
+ */
+@Schema(description = "Cambio de una lista de reproducción")
+public record PlaylistChangeDto(
+        @Schema(example = "1729260000000001") long secuencia,
+        Tipo tipo,
+        @Schema(example = "Lista 1") String nombre,
+        @Schema(example = "3") long version,
+        @Schema(example = "2024-05-01T10:15:30Z") Instant fecha
+) {
+
+    /**
+     * Posibles tipos de cambio de una lista.
+     */
+    public enum Tipo {
+        /** La lista se creó. */
+        CREADA,
+        /** Cambiaron las canciones de la lista o su orden. */
+        ACTUALIZADA,
+        /** La lista se eliminó. */
+        ELIMINADA
+    }
+}
@@ -3,18 +3,19 @@ package demo.playlist_api.web.dto;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
-import java.util.Set;
+import jakarta.validation.constraints.Size;
+import java.util.List;
 
 /**
  * DTO para representar una lista de reproducción.
  * Utiliza un registro de Java para una definición concisa e inmutable.
  * @param nombre El nombre de la lista de reproducción. No puede estar en blanco.
  * @param descripcion Una breve descripción de la lista de reproducción.
- * @param canciones Un conjunto de DTOs de canciones asociadas a la lista.
+ * @param canciones Las canciones de la lista, en orden.
  */
 @Schema(description = "Lista de reproducción")
 public record PlaylistDto(
-        @NotBlank @Schema(example = "Lista 1") String nombre,
-        @Schema(example = "Lista de canciones de Spotify") String descripcion,
-        @Valid Set<SongDto> canciones
+        @NotBlank @Size(max = 100) @Schema(example = "Lista 1") String nombre,
+        @Size(max = 500) @Schema(example = "Lista de canciones de Spotify") String descripcion,
+        @Valid List<SongDto> canciones
 ) {}
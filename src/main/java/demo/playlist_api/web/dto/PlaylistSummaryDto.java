@@ -0,0 +1,22 @@
+package demo.playlist_api.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * DTO con los datos de una lista que necesita una vista de listado, leídos de sus agregados desnormalizados.
+ * @param nombre El nombre de la lista.
+ * @param descripcion La descripción de la lista.
+ * @param numeroCanciones El número de canciones de la lista.
+ * @param generos El número de canciones por género; las canciones sin género no se cuentan.
+ * @param actualizada La fecha de la última modificación de la lista o de sus canciones.
+ */
+@Schema(description = "Resumen de una lista de reproducción, sin sus canciones")
+public record PlaylistSummaryDto(
+        @Schema(example = "Lista 1") String nombre,
+        @Schema(example = "Lista de canciones de Spotify") String descripcion,
+        @Schema(example = "12") int numeroCanciones,
+        @Schema(description = "Número de canciones por género", example = "{\"Rock\": 8, \"Pop\": 4}") Map<String, Integer> generos,
+        @Schema(example = "2024-05-01T10:15:30Z") Instant actualizada
+) {}
@@ -0,0 +1,35 @@
+package demo.playlist_api.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+/**
+ * DTO con el resultado de comparar la réplica de lectura en memoria con la base de datos.
+ * @param habilitada Si la réplica está habilitada.
+ * @param construida Si la réplica ya se ha construido; si no, las lecturas van a la base de datos.
+ * @param listasBaseDatos El número de listas en la base de datos.
+ * @param listasReplica El número de listas en la réplica.
+ * @param ausentes Los identificadores de las listas que están en la base de datos pero no en la réplica.
+ * @param desactualizadas Los identificadores de las listas cuya versión en la réplica no es la de la base de datos.
+ * @param sobrantes Los identificadores de las listas que están en la réplica pero ya no en la base de datos.
+ */
+@Schema(description = "Comparación de la réplica de lectura con la base de datos")
+public record ReadModelCheckDto(
+        boolean habilitada,
+        boolean construida,
+        int listasBaseDatos,
+        int listasReplica,
+        List<Long> ausentes,
+        List<Long> desactualizadas,
+        List<Long> sobrantes
+) {
+
+    /**
+     * Indica si la réplica coincide con la base de datos.
+     * @return {@code true} si no hay listas ausentes, desactualizadas ni sobrantes.
+     */
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    public boolean isConsistente() {
+        return ausentes.isEmpty() && desactualizadas.isEmpty() && sobrantes.isEmpty();
+    }
+}
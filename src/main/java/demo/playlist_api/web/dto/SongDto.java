@@ -1,11 +1,13 @@
 package demo.playlist_api.web.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 /**
  * DTO para representar una canción.
  * Utiliza un registro de Java para una definición concisa e inmutable.
+ * @param id El identificador de la canción; lo asigna el servidor y se ignora al crear.
  * @param titulo El título de la canción. No puede estar en blanco.
  * @param artista El artista de la canción. No puede estar en blanco.
  * @param album El álbum al que pertenece la canción.
@@ -14,9 +16,23 @@ import io.swagger.v3.oas.annotations.media.Schema;
  */
 @Schema(description = "Canción")
 public record SongDto(
-        @NotBlank @Schema(example = "Viva la Vida") String titulo,
-        @NotBlank @Schema(example = "Coldplay") String artista,
-        @Schema(example = "Viva la Vida or Death and All His Friends") String album,
-        @Schema(example = "2008") String anno,
-        @Schema(example = "Rock") String genero
-) {}
+        @Schema(accessMode = Schema.AccessMode.READ_ONLY, example = "1") Long id,
+        @NotBlank @Size(max = 200) @Schema(example = "Viva la Vida") String titulo,
+        @NotBlank @Size(max = 150) @Schema(example = "Coldplay") String artista,
+        @Size(max = 150) @Schema(example = "Viva la Vida or Death and All His Friends") String album,
+        @Size(max = 4) @Schema(example = "2008") String anno,
+        @Size(max = 50) @Schema(example = "Rock") String genero
+) {
+
+    /**
+     * Crea una canción sin identificador, como las que envían los clientes al crearlas.
+     * @param titulo El título de la canción.
+     * @param artista El artista de la canción.
+     * @param album El álbum al que pertenece la canción.
+     * @param anno El año de lanzamiento de la canción.
+     * @param genero El género musical de la canción.
+     */
+    public SongDto(String titulo, String artista, String album, String anno, String genero) {
+        this(null, titulo, artista, album, anno, genero);
+    }
+}
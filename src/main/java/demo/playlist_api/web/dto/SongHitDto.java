@@ -0,0 +1,16 @@
+package demo.playlist_api.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO con una canción encontrada por la búsqueda de texto.
+ * @param lista El nombre de la lista de reproducción que contiene la canción.
+ * @param cancion La canción encontrada.
+ * @param puntuacion La relevancia del resultado; mayor es mejor.
+ */
+@Schema(description = "Resultado de búsqueda de canciones")
+public record SongHitDto(
+        String lista,
+        SongDto cancion,
+        double puntuacion
+) {}
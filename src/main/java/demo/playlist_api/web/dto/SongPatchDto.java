@@ -0,0 +1,16 @@
+package demo.playlist_api.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import java.util.List;
+
+/**
+ * DTO para aplicar en una sola operación varios cambios a las canciones de una lista de reproducción.
+ * @param agregar Las canciones a añadir al final de la lista.
+ * @param eliminar Los identificadores de las canciones a eliminar.
+ */
+@Schema(description = "Cambios en las canciones de una lista")
+public record SongPatchDto(
+        @Valid List<SongDto> agregar,
+        List<Long> eliminar
+) {}
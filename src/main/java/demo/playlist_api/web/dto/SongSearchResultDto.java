@@ -0,0 +1,15 @@
+package demo.playlist_api.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+/**
+ * DTO con una página de resultados de la búsqueda de canciones.
+ * @param total El número total de canciones que coinciden con la búsqueda.
+ * @param resultados Las canciones de la página, de mayor a menor relevancia.
+ */
+@Schema(description = "Página de resultados de búsqueda de canciones")
+public record SongSearchResultDto(
+        int total,
+        List<SongHitDto> resultados
+) {}
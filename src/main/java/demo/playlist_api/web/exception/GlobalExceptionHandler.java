@@ -1,6 +1,10 @@
 package demo.playlist_api.web.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -10,10 +14,21 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 /**
  * Manejador de excepciones global para la aplicación.
  * Captura excepciones específicas y las convierte en respuestas de error HTTP estandarizadas.
+ * Cada error se cuenta en la métrica {@code playlist.api.errors}, etiquetada con la excepción y el estado HTTP.
  */
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry registry;
+
+    /**
+     * Construye el manejador de excepciones.
+     * @param registry El registro de métricas en el que se cuentan los errores.
+     */
+    public GlobalExceptionHandler(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
     /**
      * Maneja las excepciones {@link NotFoundException}.
      * @param ex La excepción capturada.
@@ -21,7 +36,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<ApiError> handleNotFound(NotFoundException ex) {
-        return new ResponseEntity<>(ApiError.of("Not Found", ex.getMessage(), 404), HttpStatus.NOT_FOUND);
+        return error(ex, "Not Found", ex.getMessage(), HttpStatus.NOT_FOUND);
     }
 
     /**
@@ -31,7 +46,30 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(AlreadyExistsException.class)
     public ResponseEntity<ApiError> handleExists(AlreadyExistsException ex) {
-        return new ResponseEntity<>(ApiError.of("Conflict", ex.getMessage(), 409), HttpStatus.CONFLICT);
+        return error(ex, "Conflict", ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Maneja las violaciones de restricciones de la base de datos ({@link DataIntegrityViolationException}),
+     * como un nombre de lista repetido insertado por una petición concurrente.
+     * @param ex La excepción capturada.
+     * @return Una respuesta con estado HTTP 409 Conflict y un cuerpo de error ApiError.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiError> handleDataIntegrity(DataIntegrityViolationException ex) {
+        return error(ex, "Conflict", "Los datos entran en conflicto con otros ya existentes", HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Maneja las excepciones {@link PreconditionFailedException} y los fallos de bloqueo optimista
+     * ({@link OptimisticLockingFailureException}), que indican que el recurso cambió entre la lectura y la escritura.
+     * @param ex La excepción capturada.
+     * @return Una respuesta con estado HTTP 412 Precondition Failed y un cuerpo de error ApiError.
+     */
+    @ExceptionHandler({PreconditionFailedException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<ApiError> handlePrecondition(RuntimeException ex) {
+        String msg = ex instanceof PreconditionFailedException ? ex.getMessage() : "El recurso ha sido modificado por otra petición";
+        return error(ex, "Precondition Failed", msg, HttpStatus.PRECONDITION_FAILED);
     }
 
     /**
@@ -44,7 +82,7 @@ public class GlobalExceptionHandler {
         var msg = ex.getBindingResult().getFieldErrors().stream()
                 .map(fe -> fe.getField() + ": " + fe.getDefaultMessage())
                 .findFirst().orElse("Datos inválidos");
-        return new ResponseEntity<>(ApiError.of("Bad Request", msg, 400), HttpStatus.BAD_REQUEST);
+        return error(ex, "Bad Request", msg, HttpStatus.BAD_REQUEST);
     }
 
     /**
@@ -54,6 +92,44 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<ApiError> handleConstraint(ConstraintViolationException ex) {
-        return new ResponseEntity<>(ApiError.of("Bad Request", ex.getMessage(), 400), HttpStatus.BAD_REQUEST);
+        return error(ex, "Bad Request", ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Maneja las excepciones {@link IllegalArgumentException} lanzadas por validaciones de negocio.
+     * @param ex La excepción capturada.
+     * @return Una respuesta con estado HTTP 400 Bad Request y un cuerpo de error ApiError.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ApiError> handleIllegalArgument(IllegalArgumentException ex) {
+        return error(ex, "Bad Request", ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Maneja las excepciones {@link TooManyRequestsException} lanzadas por la limitación de peticiones.
+     * @param ex La excepción capturada.
+     * @return Una respuesta con estado HTTP 429 Too Many Requests, la cabecera {@code Retry-After} en segundos
+     *         y un cuerpo de error ApiError.
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiError> handleTooManyRequests(TooManyRequestsException ex) {
+        ResponseEntity<ApiError> response = error(ex, "Too Many Requests", ex.getMessage(), HttpStatus.TOO_MANY_REQUESTS);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
+    /**
+     * Cuenta el error y construye la respuesta correspondiente.
+     * @param ex La excepción capturada.
+     * @param error El título del error.
+     * @param message El mensaje de error.
+     * @param status El estado HTTP de la respuesta.
+     * @return Una respuesta con el estado indicado y un cuerpo de error ApiError.
+     */
+    private ResponseEntity<ApiError> error(Exception ex, String error, String message, HttpStatus status) {
+        registry.counter("playlist.api.errors",
+                "exception", ex.getClass().getSimpleName(), "status", String.valueOf(status.value())).increment();
+        return new ResponseEntity<>(ApiError.of(error, message, status.value()), status);
     }
 }
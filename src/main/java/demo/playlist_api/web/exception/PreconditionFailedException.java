@@ -0,0 +1,14 @@
+package demo.playlist_api.web.exception;
+
+/**
+ * Excepción que se lanza cuando no se cumple una precondición de la petición, como un {@code If-Match}
+ * que no corresponde a la versión actual del recurso.
+ * Corresponde a un estado HTTP 412 Precondition Failed.
+ */
+public class PreconditionFailedException extends RuntimeException {
+    /**
+     * Construye una nueva PreconditionFailedException con el mensaje de detalle especificado.
+     * @param message El mensaje de detalle.
+     */
+    public PreconditionFailedException(String message) { super(message); }
+}
@@ -0,0 +1,38 @@
+package demo.playlist_api.web.exception;
+
+import java.time.Duration;
+
+/**
+ * Excepción que se lanza cuando un cliente supera el ritmo de peticiones permitido.
+ * Corresponde a un estado HTTP 429 Too Many Requests.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    /**
+     * Construye una nueva TooManyRequestsException con el mensaje de detalle y el tiempo de espera especificados.
+     * @param message El mensaje de detalle.
+     * @param retryAfter El tiempo que el cliente debe esperar antes de volver a intentarlo.
+     */
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Obtiene el tiempo que el cliente debe esperar antes de volver a intentarlo.
+     * @return El tiempo de espera.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Obtiene el tiempo de espera en segundos enteros, redondeado hacia arriba, como se envía en {@code Retry-After}.
+     * @return El tiempo de espera en segundos, al menos 1.
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+}
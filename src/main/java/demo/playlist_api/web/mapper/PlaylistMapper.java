@@ -2,18 +2,28 @@ package demo.playlist_api.web.mapper;
 
 import demo.playlist_api.domain.entity.Playlist;
 import demo.playlist_api.domain.entity.Song;
+import demo.playlist_api.domain.repository.PlaylistSongRow;
 import demo.playlist_api.web.dto.PlaylistDto;
 import demo.playlist_api.web.dto.SongDto;
 
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Clase de utilidad para mapear entre entidades de dominio y objetos de transferencia de datos (DTOs).
  * Esta clase no está pensada para ser instanciada.
+ * <p>
+ * Las canciones leídas se construyen en listas dimensionadas de antemano y sin copias intermedias, y sus valores de
+ * baja cardinalidad (artista, año y género) se deduplican con {@link StringInternPool}, ya que los DTO resultantes se
+ * conservan en la caché y en la réplica en memoria.
  */
 public final class PlaylistMapper {
 
+    private static final StringInternPool POOL = new StringInternPool(8192);
+
     /**
      * Constructor privado para evitar la instanciación de la clase de utilidad.
      */
@@ -25,10 +35,65 @@ public final class PlaylistMapper {
      * @return El DTO resultante.
      */
     public static PlaylistDto toDto(Playlist entity) {
-        Set<SongDto> canciones = entity.getSongs().stream()
-                .map(s -> new SongDto(s.getTitulo(), s.getArtista(), s.getAlbum(), s.getAnno(), s.getGenero()))
-                .collect(Collectors.toSet());
-        return new PlaylistDto(entity.getName(), entity.getDescription(), canciones);
+        List<Song> songs = entity.getSongs();
+        List<SongDto> canciones = new ArrayList<>(songs.size());
+        for (Song song : songs) {
+            canciones.add(toDto(song));
+        }
+        return new PlaylistDto(entity.getName(), entity.getDescription(), Collections.unmodifiableList(canciones));
+    }
+
+    /**
+     * Agrupa las filas planas de una sola lista de reproducción en un {@link PlaylistDto}.
+     * @param rows Las filas de la lista, en orden de canción; no puede estar vacío.
+     * @return El DTO resultante.
+     */
+    public static PlaylistDto toDto(List<PlaylistSongRow> rows) {
+        PlaylistSongRow head = rows.get(0);
+        List<SongDto> canciones = new ArrayList<>(rows.size());
+        for (PlaylistSongRow row : rows) {
+            addSong(canciones, row);
+        }
+        return new PlaylistDto(head.name(), head.description(), Collections.unmodifiableList(canciones));
+    }
+
+    /**
+     * Agrupa filas planas de varias listas en un {@link PlaylistDto} por lista, a medida que se recorren.
+     * Las filas de una misma lista deben ser consecutivas; cada lista se entrega en cuanto aparece la siguiente,
+     * por lo que solo se mantiene en memoria la lista en curso. Las canciones se acumulan en un único búfer
+     * reutilizado y cada lista recibe una copia de su tamaño exacto.
+     * @param rows Las filas, agrupadas por lista y en orden de canción.
+     * @param sink El consumidor que recibe cada lista en el orden de las filas.
+     */
+    public static void toDtos(Iterator<PlaylistSongRow> rows, Consumer<PlaylistDto> sink) {
+        PlaylistSongRow head = null;
+        List<SongDto> canciones = new ArrayList<>();
+        while (rows.hasNext()) {
+            PlaylistSongRow row = rows.next();
+            if (head != null && !head.playlistId().equals(row.playlistId())) {
+                sink.accept(new PlaylistDto(head.name(), head.description(), List.copyOf(canciones)));
+                canciones.clear();
+            }
+            if (head == null || !head.playlistId().equals(row.playlistId())) {
+                head = row;
+            }
+            addSong(canciones, row);
+        }
+        if (head != null) {
+            sink.accept(new PlaylistDto(head.name(), head.description(), List.copyOf(canciones)));
+        }
+    }
+
+    /**
+     * Añade la canción de una fila plana, si la tiene, a la lista de canciones en construcción.
+     * @param canciones Las canciones de la lista en construcción.
+     * @param row La fila plana.
+     */
+    private static void addSong(List<SongDto> canciones, PlaylistSongRow row) {
+        if (row.songId() != null) {
+            canciones.add(new SongDto(row.songId(), row.titulo(), POOL.intern(row.artista()), row.album(),
+                    POOL.intern(row.anno()), POOL.intern(row.genero())));
+        }
     }
 
     /**
@@ -39,11 +104,31 @@ public final class PlaylistMapper {
     public static Playlist toEntity(PlaylistDto dto) {
         Playlist p = new Playlist(dto.nombre(), dto.descripcion());
         if (dto.canciones() != null) {
-            dto.canciones().forEach(c -> p.addSong(new Song(c.titulo(), c.artista(), c.album(), c.anno(), c.genero())));
+            dto.canciones().forEach(c -> p.addSong(toEntity(c)));
         }
         return p;
     }
 
+    /**
+     * Convierte una entidad {@link Song} a un {@link SongDto}.
+     * @param entity La entidad a convertir.
+     * @return El DTO resultante, con el identificador de la canción.
+     */
+    public static SongDto toDto(Song entity) {
+        return new SongDto(entity.getId(), entity.getTitulo(), POOL.intern(entity.getArtista()), entity.getAlbum(),
+                POOL.intern(entity.getAnno()), POOL.intern(entity.getGenero()));
+    }
+
+    /**
+     * Convierte un {@link SongDto} a una entidad {@link Song} sin lista asociada.
+     * El identificador del DTO se ignora; lo asigna la base de datos.
+     * @param dto El DTO a convertir.
+     * @return La entidad resultante.
+     */
+    public static Song toEntity(SongDto dto) {
+        return new Song(dto.titulo(), dto.artista(), dto.album(), dto.anno(), dto.genero());
+    }
+
     /**
      * Actualiza una entidad {@link Playlist} existente con datos de un {@link PlaylistDto}.
      * @param target La entidad de destino a actualizar.
@@ -52,9 +137,10 @@ public final class PlaylistMapper {
     public static void updateEntity(Playlist target, PlaylistDto dto) {
         if (dto.descripcion() != null) target.setDescription(dto.descripcion());
         if (dto.canciones() != null) {
-            Set<Song> songs = dto.canciones().stream()
-                    .map(c -> new Song(c.titulo(), c.artista(), c.album(), c.anno(), c.genero()))
-                    .collect(Collectors.toSet());
+            List<Song> songs = new ArrayList<>(dto.canciones().size());
+            for (SongDto c : dto.canciones()) {
+                songs.add(toEntity(c));
+            }
             target.setSongs(songs);
         }
     }
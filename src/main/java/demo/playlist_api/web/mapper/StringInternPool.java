@@ -0,0 +1,48 @@
+package demo.playlist_api.web.mapper;
+
+/**
+ * Tabla acotada y con pérdidas para deduplicar cadenas de baja cardinalidad (artista, año, género), de modo que las
+ * canciones que se guardan en la caché o en la réplica en memoria compartan una sola instancia de cada valor en
+ * lugar de retener una copia por canción.
+ * <p>
+ * Cada cadena tiene una única posición, calculada con su hash; si la posición está ocupada por otro valor, se
+ * sustituye. La tabla nunca crece, no asigna memoria al consultar y no necesita cerrojos: las cadenas son inmutables,
+ * por lo que una carrera entre hilos solo puede hacer que un valor no se deduplique, nunca que se devuelva otro.
+ */
+final class StringInternPool {
+
+    /** Longitud a partir de la cual una cadena no se considera de baja cardinalidad y no se guarda. */
+    static final int MAX_LENGTH = 64;
+
+    private final String[] table;
+    private final int mask;
+
+    /**
+     * Construye una tabla vacía.
+     * @param capacity El número de posiciones; se redondea a la siguiente potencia de 2.
+     */
+    StringInternPool(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.table = new String[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Devuelve la instancia guardada de un valor, o guarda y devuelve la recibida si el valor no estaba.
+     * @param value La cadena; puede ser {@code null}.
+     * @return Una cadena igual a {@code value}, o {@code null} si {@code value} es {@code null}.
+     */
+    String intern(String value) {
+        if (value == null || value.length() > MAX_LENGTH) {
+            return value;
+        }
+        int h = value.hashCode();
+        int index = (h ^ (h >>> 16)) & mask;
+        String cached = table[index];
+        if (cached != null && cached.equals(value)) {
+            return cached;
+        }
+        table[index] = value;
+        return value;
+    }
+}
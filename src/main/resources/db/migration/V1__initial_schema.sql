@@ -0,0 +1,43 @@
+-- Esquema inicial de listas de reproducción y canciones.
+-- Debe coincidir con las entidades: Hibernate lo valida al arrancar (spring.jpa.hibernate.ddl-auto=validate).
+
+create sequence playlist_seq start with 1 increment by 50;
+
+create sequence song_seq start with 1 increment by 500;
+
+create table playlists (
+    id bigint not null,
+    version bigint,
+    name varchar(100) not null,
+    name_key varchar(300) not null,
+    description varchar(500),
+    song_count integer not null,
+    genre_counts json not null,
+    created_at timestamp(6) with time zone not null,
+    updated_at timestamp(6) with time zone not null,
+    primary key (id),
+    constraint uk_playlist_name_key unique (name_key)
+);
+
+create table songs (
+    id bigint not null,
+    playlist_id bigint not null,
+    position bigint not null,
+    titulo varchar(200) not null,
+    artista varchar(150) not null,
+    album varchar(150),
+    anno varchar(4),
+    genero varchar(50),
+    primary key (id),
+    constraint fk_song_playlist foreign key (playlist_id) references playlists
+);
+
+-- Paginación por clave de GET /lists (name > :after order by name)
+create index idx_playlist_name on playlists (name);
+
+-- Orden de GET /lists/summary
+create index idx_playlist_updated_at on playlists (updated_at);
+create index idx_playlist_song_count on playlists (song_count);
+
+-- Canciones de una lista en orden; también sirve a las búsquedas y borrados por playlist_id
+create index idx_song_playlist_position on songs (playlist_id, position);
@@ -0,0 +1,18 @@
+-- Eventos pendientes de enviar a otros sistemas (OutboxEvent), escritos en la misma transacción que el cambio.
+
+create sequence outbox_seq start with 1 increment by 50;
+
+create table outbox_events (
+    id bigint not null,
+    type varchar(20) not null,
+    playlist_id bigint not null,
+    playlist_name varchar(100) not null,
+    playlist_version bigint not null,
+    created_at timestamp(6) with time zone not null,
+    claim_token varchar(36),
+    claimed_until timestamp(6) with time zone,
+    primary key (id)
+);
+
+-- Lectura de los eventos reservados por un relevo
+create index idx_outbox_claim_token on outbox_events (claim_token);
@@ -0,0 +1,9 @@
+-- Reparto fijo de los eventos del outbox (OutboxEvent.SHARDS particiones por lista), para que cada relevo
+-- lea solo su rango de particiones por índice en lugar de recorrer toda la tabla en cada vaciado.
+
+alter table outbox_events add column shard integer;
+update outbox_events set shard = mod(playlist_id, 1024);
+alter table outbox_events alter column shard set not null;
+
+-- Búsqueda de los eventos libres de un relevo: rango de particiones y reserva, sin leer las filas
+create index idx_outbox_shard_claim on outbox_events (shard, claimed_until, id);
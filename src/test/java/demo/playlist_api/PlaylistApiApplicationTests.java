@@ -1,33 +1,83 @@
 package demo.playlist_api;
 
+import demo.playlist_api.config.ChangeFeedProperties;
+import demo.playlist_api.config.ConnectionLimitingDataSource;
+import demo.playlist_api.config.SqlStatementCounter;
+import demo.playlist_api.domain.entity.Song;
+import demo.playlist_api.domain.repository.OutboxEventRepository;
+import demo.playlist_api.domain.repository.PlaylistRepository;
+import demo.playlist_api.domain.repository.PlaylistSongRow;
+import demo.playlist_api.service.InMemoryOutboxSink;
+import demo.playlist_api.service.OutboxSink;
+import demo.playlist_api.service.PlaylistChangeFeed;
+import demo.playlist_api.service.PlaylistService;
+import demo.playlist_api.service.PlaylistWarmup;
+import demo.playlist_api.web.dto.PlaylistChangeDto;
 import demo.playlist_api.web.dto.PlaylistDto;
 import demo.playlist_api.web.dto.SongDto;
+import demo.playlist_api.web.dto.SongPatchDto;
+import demo.playlist_api.web.exception.AlreadyExistsException;
+import demo.playlist_api.web.mapper.PlaylistMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Set;
+import javax.sql.DataSource;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 
-@SpringBootTest
+@SpringBootTest(properties = "playlist.reactive.enabled=true")
 @AutoConfigureMockMvc
 class PlaylistControllerTest {
 
     @Autowired MockMvc mvc;
     @Autowired ObjectMapper om;
+    @Autowired MeterRegistry meters;
+    @Autowired DataSource dataSource;
+    @Autowired PlaylistService service;
+    @Autowired PlaylistRepository playlists;
+    @Autowired SqlStatementCounter sqlStatements;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired PlaylistWarmup warmup;
+    @Autowired PlaylistChangeFeed changeFeed;
+    @Autowired OutboxSink outboxSink;
+    @Autowired OutboxEventRepository outbox;
 
     private String basicAuth(String u, String p){return "Basic " + java.util.Base64.getEncoder().encodeToString((u+":"+p).getBytes());}
 
     @Test
     void fullFlow() throws Exception {
-        var dto = new PlaylistDto("Lista 1", "Descripción", Set.of(new SongDto("Song","Artist","Album","2024","Pop")));
+        var dto = new PlaylistDto("Lista 1", "Descripción", List.of(new SongDto("Song","Artist","Album","2024","Pop")));
         mvc.perform(post("/lists")
                         .contentType(MediaType.APPLICATION_JSON)
                         .header("Authorization", basicAuth("user","user123"))
@@ -47,4 +97,761 @@ class PlaylistControllerTest {
                         .header("Authorization", basicAuth("admin","admin123")))
                 .andExpect(status().isNoContent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void keysetPagination() throws Exception {
+        for (String name : new String[]{"Página A", "Página B", "Página C"}) {
+            var dto = new PlaylistDto(name, null, List.of(new SongDto("Song","Artist","Album","2024","Pop")));
+            mvc.perform(post("/lists")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header("Authorization", basicAuth("user","user123"))
+                            .content(om.writeValueAsString(dto)))
+                    .andExpect(status().isCreated());
+        }
+
+        mvc.perform(get("/lists").param("after", "Página").param("limit", "2")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].nombre").value("Página A"))
+                .andExpect(jsonPath("$[1].canciones[0].titulo").value("Song"))
+                .andExpect(header().string("Link", containsString("rel=\"next\"")));
+
+        mvc.perform(get("/lists").param("after", "Página B").param("limit", "2")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].nombre").value("Página C"))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
+    @Test
+    void ndjsonExport() throws Exception {
+        var dto = new PlaylistDto("Exportada", "Export", List.of(
+                new SongDto("Uno","Artist","Album","2024","Pop"),
+                new SongDto("Dos","Artist","Album","2024","Pop")));
+        mvc.perform(post("/lists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content(om.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+
+        String body = mvc.perform(get("/lists/export")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        var exported = body.lines()
+                .map(line -> { try { return om.readValue(line, PlaylistDto.class); } catch (Exception e) { throw new IllegalStateException(e); } })
+                .filter(p -> p.nombre().equals("Exportada"))
+                .toList();
+        assertThat(exported).hasSize(1);
+        assertThat(exported.get(0).canciones()).hasSize(2);
+    }
+
+    @Test
+    void bulkImport() throws Exception {
+        var song = new SongDto("Song","Artist","Album","2024","Pop");
+        var existing = new PlaylistDto("Masiva 1", null, List.of(song));
+        mvc.perform(post("/lists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content(om.writeValueAsString(existing)))
+                .andExpect(status().isCreated());
+
+        var items = List.of(
+                new PlaylistDto("MASIVA 1", null, List.of(song)),
+                new PlaylistDto("Masiva 2", null, List.of(song)),
+                new PlaylistDto("masiva 2", null, List.of(song)),
+                new PlaylistDto(" ", null, List.of(song)));
+        mvc.perform(post("/lists/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content(om.writeValueAsString(items)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.creadas").value(1))
+                .andExpect(jsonPath("$.conflictos").value(2))
+                .andExpect(jsonPath("$.invalidas").value(1))
+                .andExpect(jsonPath("$.resultados[1].estado").value("CREADA"));
+
+        String ndjson = om.writeValueAsString(new PlaylistDto("Masiva 3", null, List.of(song))) + "\n"
+                + om.writeValueAsString(new PlaylistDto("Masiva 4", null, List.of())) + "\n";
+        mvc.perform(post("/lists/bulk")
+                        .contentType("application/x-ndjson")
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.creadas").value(2));
+
+        mvc.perform(get("/lists/Masiva 3")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.canciones[0].titulo").value("Song"));
+    }
+
+    @Test
+    void cachedReadsAreInvalidatedOnDelete() throws Exception {
+        var dto = new PlaylistDto("En caché", null, List.of(new SongDto("Song","Artist","Album","2024","Pop")));
+        mvc.perform(post("/lists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content(om.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+
+        mvc.perform(get("/lists/En caché").header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk());
+        String before = mvc.perform(get("/admin/caches/playlists").header("Authorization", basicAuth("admin","admin123")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        mvc.perform(get("/lists/EN CACHÉ").header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk());
+        mvc.perform(get("/admin/caches/playlists").header("Authorization", basicAuth("admin","admin123")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.aciertos").value(om.readTree(before).get("aciertos").asLong() + 1));
+
+        mvc.perform(delete("/lists/En caché").header("Authorization", basicAuth("admin","admin123")))
+                .andExpect(status().isNoContent());
+        mvc.perform(get("/lists/En caché").header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isNotFound());
+        mvc.perform(get("/admin/caches/playlists").header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void conditionalRequests() throws Exception {
+        var dto = new PlaylistDto("Condicional", null, List.of(new SongDto("Song","Artist","Album","2024","Pop")));
+        mvc.perform(post("/lists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content(om.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+
+        String etag = mvc.perform(get("/lists/Condicional").header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).matches("\"\\d+-\\d+\"");
+
+        mvc.perform(get("/lists/Condicional")
+                        .header("Authorization", basicAuth("user","user123"))
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mvc.perform(delete("/lists/Condicional")
+                        .header("Authorization", basicAuth("admin","admin123"))
+                        .header("If-Match", "\"0-99\""))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+
+        // If-Match usa comparación fuerte: la misma ETag marcada como débil no coincide
+        mvc.perform(delete("/lists/Condicional")
+                        .header("Authorization", basicAuth("admin","admin123"))
+                        .header("If-Match", "W/" + etag))
+                .andExpect(status().isPreconditionFailed());
+
+        mvc.perform(delete("/lists/Condicional")
+                        .header("Authorization", basicAuth("admin","admin123"))
+                        .header("If-Match", "\"0-99\", \"otra,etiqueta\", W/" + etag + ", " + etag))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void incrementalSongChanges() throws Exception {
+        var dto = new PlaylistDto("Incremental", null, List.of(new SongDto("Uno","Artist","Album","2024","Pop")));
+        mvc.perform(post("/lists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content(om.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+
+        var added = mvc.perform(post("/lists/Incremental/songs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content(om.writeValueAsString(new SongDto("Dos","Artist","Album","2024","Pop"))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").isNumber())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse();
+        long songId = om.readTree(added.getContentAsString()).get("id").asLong();
+
+        mvc.perform(get("/lists/Incremental").header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", added.getHeader("ETag")))
+                .andExpect(jsonPath("$.canciones.length()").value(2));
+
+        mvc.perform(delete("/lists/Incremental/songs/" + songId)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .header("If-Match", "\"0-0\""))
+                .andExpect(status().isPreconditionFailed());
+        mvc.perform(delete("/lists/Incremental/songs/" + songId)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .header("If-Match", added.getHeader("ETag")))
+                .andExpect(status().isNoContent());
+        mvc.perform(delete("/lists/Incremental/songs/" + songId)
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isNotFound());
+
+        var patch = new SongPatchDto(
+                List.of(new SongDto("Tres","Artist","Album","2024","Pop"), new SongDto("Tres","Artist","Album","2024","Pop")), null);
+        mvc.perform(patch("/lists/Incremental/songs")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content(om.writeValueAsString(patch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        mvc.perform(get("/lists/Incremental").header("Authorization", basicAuth("user","user123")))
+                .andExpect(jsonPath("$.canciones.length()").value(3));
+    }
+
+    @Test
+    void orderedSongsAndMoves() throws Exception {
+        var dto = new PlaylistDto("Ordenada", null, List.of(
+                new SongDto("A","Artist","Album","2024","Pop"),
+                new SongDto("B","Artist","Album","2024","Pop"),
+                new SongDto("C","Artist","Album","2024","Pop"),
+                new SongDto("C","Artist","Album","2024","Pop")));
+        String created = mvc.perform(post("/lists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content(om.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.canciones[*].titulo").value(contains("A", "B", "C", "C")))
+                .andReturn().getResponse().getContentAsString();
+        var songs = om.readTree(created).get("canciones");
+        long a = songs.get(0).get("id").asLong();
+        long c = songs.get(2).get("id").asLong();
+
+        mvc.perform(patch("/lists/Ordenada/songs/" + a + "/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content("{\"despuesDe\": " + c + "}"))
+                .andExpect(status().isNoContent());
+        mvc.perform(patch("/lists/Ordenada/songs/" + c + "/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content("{\"despuesDe\": null}"))
+                .andExpect(status().isNoContent());
+
+        mvc.perform(get("/lists/Ordenada").header("Authorization", basicAuth("user","user123")))
+                .andExpect(jsonPath("$.canciones[*].titulo").value(contains("C", "B", "A", "C")));
+        mvc.perform(get("/lists/Ordenada/songs").param("offset", "1").param("limit", "2")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].titulo").value(contains("B", "A")));
+
+        // Mover repetidamente al principio agota el hueco y obliga a renumerar la lista sin alterar el orden.
+        for (int i = 0; i < 25; i++) {
+            long head = i % 2 == 0 ? a : c;
+            mvc.perform(patch("/lists/Ordenada/songs/" + head + "/move")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header("Authorization", basicAuth("user","user123"))
+                            .content("{}"))
+                    .andExpect(status().isNoContent());
+        }
+        mvc.perform(get("/lists/Ordenada").header("Authorization", basicAuth("user","user123")))
+                .andExpect(jsonPath("$.canciones[*].titulo").value(contains("A", "C", "B", "C")));
+    }
+
+    @Test
+    void songSearch() throws Exception {
+        var dto = new PlaylistDto("Búsqueda", null, List.of(
+                new SongDto("Canción del Mariachi","Los Lobos","Desperado","1995","Ranchera"),
+                new SongDto("Corazón Espinado","Santana","Supernatural","1999","Rock"),
+                new SongDto("Mariposa Traicionera","Maná","Revolución de Amor","2002","Rock")));
+        String created = mvc.perform(post("/lists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content(om.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        mvc.perform(get("/songs/search").param("q", "cancion mari")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.resultados[0].lista").value("Búsqueda"))
+                .andExpect(jsonPath("$.resultados[0].cancion.titulo").value("Canción del Mariachi"));
+
+        mvc.perform(get("/songs/search").param("q", "ROCK").param("limit", "1")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.resultados.length()").value(1));
+
+        long songId = om.readTree(created).get("canciones").get(1).get("id").asLong();
+        mvc.perform(delete("/lists/Búsqueda/songs/" + songId)
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isNoContent());
+        mvc.perform(get("/songs/search").param("q", "rock")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.resultados[0].cancion.artista").value("Maná"));
+
+        mvc.perform(delete("/lists/Búsqueda")
+                        .header("Authorization", basicAuth("admin","admin123")))
+                .andExpect(status().isNoContent());
+        mvc.perform(get("/songs/search").param("q", "mana")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(jsonPath("$.total").value(0));
+    }
+
+    @Test
+    void prefixSearchCountsEveryExpandedTerm() throws Exception {
+        List<SongDto> songs = IntStream.range(0, 300)
+                .mapToObj(i -> new SongDto("Zprefijo" + i, "Artist", "Album", "2024", "Pop"))
+                .toList();
+        service.create(new PlaylistDto("Prefijos", null, songs));
+
+        // 300 términos distintos con el mismo prefijo: todas las canciones cuentan en el total
+        mvc.perform(get("/songs/search").param("q", "zpref").param("limit", "5")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(300))
+                .andExpect(jsonPath("$.resultados.length()").value(5));
+        mvc.perform(get("/songs/search").param("q", "zprefijo42")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.resultados[0].cancion.titulo").value("Zprefijo42"));
+        // Un término de un solo carácter no se expande como prefijo
+        mvc.perform(get("/songs/search").param("q", "z")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(jsonPath("$.total").value(0));
+    }
+
+    @Test
+    void requestMetrics() throws Exception {
+        var dto = new PlaylistDto("Métricas", null, List.of(new SongDto("Song","Artist","Album","2024","Pop")));
+        mvc.perform(post("/lists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content(om.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+        mvc.perform(get("/lists/No existe")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isNotFound());
+
+        var statements = meters.get("playlist.http.sql.statements")
+                .tags("method", "POST", "uri", "/lists").summary();
+        assertThat(statements.count()).isPositive();
+        assertThat(statements.max()).isGreaterThanOrEqualTo(2);
+        assertThat(meters.get("playlist.api.errors")
+                .tags("exception", "NotFoundException", "status", "404").counter().count()).isPositive();
+        assertThat(meters.get("playlist.service")
+                .tags("method", "create").timer().count()).isPositive();
+
+        mvc.perform(get("/actuator/metrics")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isForbidden());
+        mvc.perform(get("/actuator/metrics/hibernate.statements")
+                        .header("Authorization", basicAuth("admin","admin123")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void cachedCredentials() throws Exception {
+        mvc.perform(get("/lists").header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk());
+        mvc.perform(get("/lists").header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk());
+        mvc.perform(get("/lists").header("Authorization", basicAuth("user","otra")))
+                .andExpect(status().isUnauthorized());
+        mvc.perform(delete("/lists/No existe").header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isForbidden());
+
+        assertThat(meters.get("cache.gets")
+                .tags("cache", "credentials", "result", "hit").functionCounter().count()).isPositive();
+    }
+
+    @Test
+    void virtualThreadsShareTheConnectionPool() throws Exception {
+        service.create(new PlaylistDto("Concurrente", null, List.of(new SongDto("Song","Artist","Album","2024","Pop"))));
+        assertThat(dataSource)
+                .isInstanceOf(ConnectionLimitingDataSource.class);
+        var limiter = (ConnectionLimitingDataSource) dataSource;
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var versions = IntStream.range(0, 200)
+                    .mapToObj(i -> executor.submit(() -> service.findVersion("Concurrente")))
+                    .toList();
+            for (var version : versions) {
+                assertThat(version.get().version()).isNotNull();
+            }
+        }
+
+        assertThat(limiter.availablePermits()).isEqualTo(10);
+        assertThat(meters.get("playlist.datasource.connection.wait").timer().count())
+                .isGreaterThanOrEqualTo(200);
+        assertThat(meters.find("jvm.threads.virtual.pinned").timer()).isNotNull();
+    }
+
+    @Test
+    void reactiveReads() throws Exception {
+        for (String name : new String[]{"Reactiva A", "Reactiva B", "Reactiva C"}) {
+            service.create(new PlaylistDto(name, null, List.of(new SongDto("Song","Artist","Album","2024","Pop"))));
+        }
+
+        var single = mvc.perform(get("/reactive/lists/Reactiva B")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(single))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nombre").value("Reactiva B"));
+
+        var missing = mvc.perform(get("/reactive/lists/No existe")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(missing))
+                .andExpect(status().isNotFound());
+
+        var stream = mvc.perform(get("/reactive/lists").param("after", "Reactiva A")
+                        .accept("application/x-ndjson")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        stream.getAsyncResult(10_000);
+        String[] lines = stream.getResponse().getContentAsString().split("\n");
+        assertThat(lines).isNotEmpty();
+        assertThat(om.readTree(lines[0]).get("nombre").asText()).isEqualTo("Reactiva B");
+        assertThat(om.readTree(lines[1]).get("nombre").asText()).isEqualTo("Reactiva C");
+    }
+
+    @Test
+    void secondLevelCache() throws Exception {
+        service.create(new PlaylistDto("Cacheada", null, List.of(
+                new SongDto("Uno","Artist","Album","2024","Pop"), new SongDto("Dos","Artist","Album","2024","Pop"))));
+        var tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        Supplier<List<String>> load = () -> tx.execute(status -> playlists.loadByName("CACHEADA")
+                .orElseThrow().getSongs().stream().map(Song::getTitulo).toList());
+
+        assertThat(load.get()).containsExactly("Uno", "Dos");
+        sqlStatements.start();
+        assertThat(load.get()).containsExactly("Uno", "Dos");
+        assertThat(sqlStatements.stop()).isZero();
+
+        String body = mvc.perform(get("/lists/Cacheada")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andReturn().getResponse().getContentAsString();
+        long songId = om.readTree(body).get("canciones").get(0).get("id").asLong();
+        mvc.perform(delete("/lists/Cacheada/songs/" + songId)
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isNoContent());
+        assertThat(load.get()).containsExactly("Dos");
+
+        mvc.perform(get("/admin/caches/regions")
+                        .header("Authorization", basicAuth("admin","admin123")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.region == 'playlist-songs')].aciertos").isNotEmpty());
+    }
+
+    @Test
+    void warmUpPreloadsRecentPlaylists() {
+        service.create(new PlaylistDto("Calentada", null, List.of(new SongDto("Uno","Artist","Album","2024","Pop"))));
+
+        assertThat(warmup.warmUp()).isPositive();
+        sqlStatements.start();
+        assertThat(service.findByName("calentada").canciones()).hasSize(1);
+        assertThat(sqlStatements.stop()).isZero();
+    }
+
+    @Test
+    void changeFeed() throws Exception {
+        long start = changeFeed.lastSequence();
+        var changes = changeFeed.changes(start).take(3).collectList().toFuture();
+        service.create(new PlaylistDto("Con Cambios", null, List.of()));
+        service.addSongs("con cambios", List.of(new SongDto("Uno","Artist","Album","2024","Pop")), null);
+        service.deleteByName("CON CAMBIOS");
+
+        var received = changes.get(10, TimeUnit.SECONDS);
+        assertThat(received)
+                .extracting(c -> c.tipo().name(), PlaylistChangeDto::nombre,
+                        PlaylistChangeDto::version)
+                .containsExactly(tuple("CREADA", "Con Cambios", 0L),
+                        tuple("ACTUALIZADA", "Con Cambios", 1L),
+                        tuple("ELIMINADA", "Con Cambios", 1L));
+        assertThat(changeFeed.changes(start).take(3).collectList()
+                .block(Duration.ofSeconds(10))).isEqualTo(received);
+
+        // Un cursor que ya no está en el búfer (o es de otro arranque) termina con RESET
+        var reset = mvc.perform(get("/lists/changes").header("Last-Event-ID", "0")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        reset.getAsyncResult(10_000);
+        assertThat(reset.getResponse().getContentAsString())
+                .contains("event:RESET").doesNotContain("event:CREADA");
+
+        // Un suscriptor que se queda más atrás que la capacidad del búfer se desconecta
+        var small = new PlaylistChangeFeed(
+                new ChangeFeedProperties(4, Duration.ofSeconds(15)),
+                new SimpleMeterRegistry());
+        long first = small.lastSequence();
+        for (int i = 0; i < 5; i++) {
+            small.publish(PlaylistChangeDto.Tipo.CREADA, "Lista " + i, 0);
+        }
+        assertThatThrownBy(() -> small.changes(first).blockFirst())
+                .isInstanceOf(PlaylistChangeFeed.OverrunException.class);
+        assertThat(small.changes(first + 1).take(4).collectList().block())
+                .extracting(PlaylistChangeDto::nombre)
+                .containsExactly("Lista 1", "Lista 2", "Lista 3", "Lista 4");
+
+        // Los publicadores concurrentes no esperan ni fallan, y el suscriptor recibe todos los cambios
+        var shared = new PlaylistChangeFeed(
+                new ChangeFeedProperties(1 << 16, Duration.ofSeconds(15)),
+                new SimpleMeterRegistry());
+        var all = shared.changes(shared.lastSequence()).take(8 * 2_000).count().toFuture();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < 8; t++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        shared.publish(PlaylistChangeDto.Tipo.ACTUALIZADA, "Concurrente", i);
+                    }
+                });
+            }
+        }
+        assertThat(all.get(10, TimeUnit.SECONDS)).isEqualTo(8 * 2_000L);
+    }
+
+    @Test
+    void outboxRelaysCommittedEvents() throws Exception {
+        service.create(new PlaylistDto("Con Outbox", null, List.of()));
+        assertThatThrownBy(() -> service.create(new PlaylistDto("CON OUTBOX", null, List.of())))
+                .isInstanceOf(AlreadyExistsException.class);
+        service.importAll(List.of(new PlaylistDto("Con Outbox Importada", null, List.of())).iterator());
+        service.deleteAllByName(List.of("con outbox", "con outbox importada"));
+
+        var sink = (InMemoryOutboxSink) outboxSink;
+        Function<List<PlaylistChangeDto>, List<String>> sent = events -> events.stream()
+                .filter(e -> e.nombre().startsWith("Con Outbox"))
+                .map(e -> e.tipo() + " " + e.nombre() + " " + e.version())
+                .toList();
+        assertThat(await().atMost(Duration.ofSeconds(10))
+                .until(() -> sent.apply(sink.events()), events -> events.size() >= 4)).containsExactly(
+                "CREADA Con Outbox 0", "CREADA Con Outbox Importada 0",
+                "ELIMINADA Con Outbox 0", "ELIMINADA Con Outbox Importada 0");
+        assertThat(outbox.findAll())
+                .noneMatch(e -> e.getPlaylistName().startsWith("Con Outbox"));
+        assertThat(meters.get("playlist.outbox.lag").timer().count()).isPositive();
+        assertThat(meters.get("playlist.outbox.oldest.age").gauge().value()).isNotNegative();
+
+        // La búsqueda de eventos libres de un relevo recorre su rango de particiones por índice, no toda la tabla
+        try (var connection = dataSource.getConnection();
+             var plan = connection.createStatement().executeQuery("explain select id from outbox_events "
+                     + "where shard between 0 and 511 and (claimed_until is null or claimed_until < current_timestamp) "
+                     + "order by id fetch first 100 rows only")) {
+            assertThat(plan.next()).isTrue();
+            assertThat(plan.getString(1)).containsIgnoringCase("idx_outbox_shard_claim");
+        }
+    }
+
+    @Test
+    void caseInsensitiveNamesAreUniqueUnderConcurrency() throws Exception {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var attempts = IntStream.range(0, 8)
+                    .mapToObj(i -> executor.submit(() -> service.create(new PlaylistDto(
+                            i % 2 == 0 ? "Carrera Única" : "CARRERA ÚNICA", null, List.of()))))
+                    .toList();
+            int created = 0, conflicts = 0;
+            for (var attempt : attempts) {
+                try {
+                    attempt.get();
+                    created++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause())
+                            .isInstanceOf(AlreadyExistsException.class);
+                    conflicts++;
+                }
+            }
+            assertThat(created).isEqualTo(1);
+            assertThat(conflicts).isEqualTo(7);
+        }
+
+        mvc.perform(get("/lists/carrera única")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk());
+        String decomposed = Normalizer.normalize("CARRERA ÚNICA", Normalizer.Form.NFD);
+        mvc.perform(post("/lists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content(om.writeValueAsString(new PlaylistDto(decomposed, null, List.of()))))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void bulkDeletes() throws Exception {
+        var songs = IntStream.range(0, 200)
+                .mapToObj(i -> new SongDto("Song " + i, "Artist", "Album", "2024", "Pop")).toList();
+        for (String name : new String[]{"Borrar A", "Borrar B", "Borrar C"}) {
+            service.create(new PlaylistDto(name, null, songs));
+        }
+        service.findByName("Borrar A");
+
+        sqlStatements.start();
+        mvc.perform(delete("/lists/Borrar A")
+                        .header("Authorization", basicAuth("admin","admin123")))
+                .andExpect(status().isNoContent());
+        assertThat(sqlStatements.stop()).isLessThan(10);
+        mvc.perform(get("/lists/Borrar A")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isNotFound());
+
+        mvc.perform(delete("/lists").param("names", "Borrar B", "No existe")
+                        .header("Authorization", basicAuth("admin","admin123")))
+                .andExpect(status().isNotFound());
+        mvc.perform(delete("/lists").param("names", "Borrar B", "borrar c")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isForbidden());
+        mvc.perform(delete("/lists").param("names", "Borrar B", "borrar c")
+                        .header("Authorization", basicAuth("admin","admin123")))
+                .andExpect(status().isNoContent());
+        mvc.perform(get("/lists/Borrar C")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void projectedReads() throws Exception {
+        service.create(new PlaylistDto("Proyección A", "Con canciones", List.of(
+                new SongDto("Uno","Artist","Album","2024","Pop"), new SongDto("Dos","Artist","Album","2024","Pop"))));
+        service.create(new PlaylistDto("Proyección B", null, List.of()));
+        service.create(new PlaylistDto("Proyección C", null, List.of(new SongDto("Tres","Artist","Album","2024","Pop"))));
+
+        sqlStatements.start();
+        List<PlaylistDto> page = service.findAll("Proyección", 3);
+        assertThat(sqlStatements.stop()).isLessThanOrEqualTo(2);
+        assertThat(page).extracting(PlaylistDto::nombre)
+                .containsExactly("Proyección A", "Proyección B", "Proyección C");
+        assertThat(page.get(0).canciones()).extracting(SongDto::titulo)
+                .containsExactly("Uno", "Dos");
+        assertThat(page.get(1).canciones()).isEmpty();
+
+        sqlStatements.start();
+        PlaylistDto found = service.findVersionedByName("proyección c").playlist();
+        assertThat(sqlStatements.stop()).isLessThanOrEqualTo(1);
+        assertThat(found.canciones()).extracting(SongDto::titulo).containsExactly("Tres");
+    }
+
+    @Test
+    void mappedSongsShareLowCardinalityValues() {
+        var now = Instant.now();
+        List<SongDto> canciones = PlaylistMapper.toDto(List.of(
+                new PlaylistSongRow(1L, 0L, now, "Deduplicada", null, 1L,
+                        "Uno", new String("Artista D"), "Album", new String("1999"), new String("Jazz")),
+                new PlaylistSongRow(1L, 0L, now, "Deduplicada", null, 2L,
+                        "Dos", new String("Artista D"), "Album", new String("1999"), new String("Jazz")))).canciones();
+        assertThat(canciones).extracting(SongDto::titulo).containsExactly("Uno", "Dos");
+        assertThat(canciones.get(1).artista()).isSameAs(canciones.get(0).artista());
+        assertThat(canciones.get(1).anno()).isSameAs(canciones.get(0).anno());
+        assertThat(canciones.get(1).genero()).isSameAs(canciones.get(0).genero());
+    }
+
+    @Test
+    void summaries() throws Exception {
+        service.create(new PlaylistDto("Resumen A", "Corta", List.of(new SongDto("Uno","Artist","Album","2024","Pop"))));
+        service.create(new PlaylistDto("Resumen B", null, List.of(
+                new SongDto("Uno","Artist","Album","2024","Rock"), new SongDto("Dos","Artist","Album","2024","Rock"),
+                new SongDto("Tres","Artist","Album","2024",null))));
+        String body = mvc.perform(get("/lists/Resumen B")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andReturn().getResponse().getContentAsString();
+        long rockId = om.readTree(body).get("canciones").get(0).get("id").asLong();
+        service.patchSongs("Resumen B", new SongPatchDto(
+                List.of(new SongDto("Cuatro","Artist","Album","2024","Jazz")), List.of(rockId)), null);
+
+        String summaries = mvc.perform(get("/lists/summary").param("sort", "canciones,desc").param("limit", "500")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.nombre == 'Resumen B')].numeroCanciones").value(3))
+                .andExpect(jsonPath("$[?(@.nombre == 'Resumen B')].generos.Rock").value(1))
+                .andExpect(jsonPath("$[?(@.nombre == 'Resumen B')].generos.Jazz").value(1))
+                .andExpect(jsonPath("$[?(@.nombre == 'Resumen A')].descripcion").value("Corta"))
+                .andExpect(jsonPath("$[?(@.nombre == 'Resumen A')].canciones").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(summaries.indexOf("Resumen B")).isLessThan(summaries.indexOf("Resumen A"));
+
+        sqlStatements.start();
+        service.findSummaries(PageRequest.of(0, 10,
+                Sort.by("updatedAt")));
+        assertThat(sqlStatements.stop()).isEqualTo(1);
+
+        mvc.perform(get("/lists/summary").param("sort", "nombre").param("limit", "1")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().string("Link", containsString("page=1")));
+        mvc.perform(get("/lists/summary").param("sort", "canciones,sideways")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void cborContentNegotiation() throws Exception {
+        var cbor = new CBORMapper();
+        var dto = new PlaylistDto("Binaria", null, List.of(new SongDto("Song","Artist","Album","2024","Pop")));
+        mvc.perform(post("/lists")
+                        .contentType("application/cbor")
+                        .accept("application/cbor")
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content(cbor.writeValueAsBytes(dto)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType("application/cbor"));
+
+        byte[] body = mvc.perform(get("/lists/Binaria").accept("application/cbor")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(cbor.readValue(body, PlaylistDto.class).canciones())
+                .extracting(SongDto::titulo).containsExactly("Song");
+
+        mvc.perform(get("/lists/Binaria")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        mvc.perform(get("/lists/No existe").accept("application/cbor")
+                        .header("Authorization", basicAuth("user","user123")))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType("application/cbor"));
+    }
+
+    @Test
+    void rateLimiting() throws Exception {
+        String invalid = om.writeValueAsString(new PlaylistDto("", null, List.of()));
+        int accepted = 0;
+        MvcResult limited = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < 100 && limited == null; i++) {
+            var result = mvc.perform(post("/lists")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header("Authorization", basicAuth("admin","admin123"))
+                            .content(invalid))
+                    .andReturn();
+            if (result.getResponse().getStatus() == 429) {
+                limited = result;
+            } else {
+                accepted++;
+            }
+        }
+        // Ráfaga de 20 más 10 por segundo durante lo que haya tardado el bucle
+        long refilled = (System.nanoTime() - start) / 100_000_000 + 1;
+        assertThat(limited).isNotNull();
+        assertThat(accepted).isBetween(20, 20 + (int) refilled);
+        assertThat(limited.getResponse().getHeader("Retry-After")).isEqualTo("1");
+        assertThat(om.readTree(limited.getResponse().getContentAsString()).get("status").asInt())
+                .isEqualTo(429);
+
+        mvc.perform(post("/lists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .content(invalid))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/lists")
+                        .header("Authorization", basicAuth("admin","admin123")))
+                .andExpect(status().isOk());
+        assertThat(meters.get("playlist.ratelimit.requests")
+                .tags("rule", "lists-create", "outcome", "rejected").counter().count()).isEqualTo(1);
+    }
+}
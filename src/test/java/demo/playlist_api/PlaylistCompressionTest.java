@@ -0,0 +1,90 @@
+package demo.playlist_api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo.playlist_api.service.PlaylistService;
+import demo.playlist_api.web.dto.PlaylistDto;
+import demo.playlist_api.web.dto.SongDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:compressiondb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"})
+class PlaylistCompressionTest {
+
+    @LocalServerPort int port;
+    @Autowired PlaylistService service;
+    @Autowired ObjectMapper om;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private String basicAuth(String u, String p){return "Basic " + Base64.getEncoder().encodeToString((u+":"+p).getBytes());}
+
+    @Test
+    void largePlaylistsAreCompressed() throws Exception {
+        List<SongDto> songs = IntStream.range(0, 200)
+                .mapToObj(i -> new SongDto("Canción " + i, "Artista " + i % 10, "Álbum " + i % 5, "2024", "Pop"))
+                .toList();
+        service.create(new PlaylistDto("Comprimida", null, songs));
+        URI uri = URI.create("http://localhost:" + port + "/lists/" + URLEncoder.encode("Comprimida", StandardCharsets.UTF_8));
+
+        HttpResponse<InputStream> response = client.send(HttpRequest.newBuilder(uri)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .header("Accept-Encoding", "gzip")
+                        .build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        String etag = response.headers().firstValue("ETag").orElseThrow();
+        assertThat(String.join(",", response.headers().allValues("Vary"))).contains("Accept-Encoding");
+        assertThat(etag).matches("\"\\d+-\\d+-gzip\"");
+        try (InputStream body = new GZIPInputStream(response.body())) {
+            JsonNode playlist = om.readTree(body);
+            assertThat(playlist.get("nombre").asText()).isEqualTo("Comprimida");
+            assertThat(playlist.get("canciones").size()).isEqualTo(200);
+        }
+
+        HttpResponse<Void> notModified = client.send(HttpRequest.newBuilder(uri)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .header("Accept-Encoding", "gzip")
+                        .header("If-None-Match", etag)
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        assertThat(notModified.statusCode()).isEqualTo(304);
+        assertThat(notModified.headers().firstValue("ETag")).hasValue(etag);
+
+        // Sin Accept-Encoding la representación es otra y tiene su propia ETag fuerte
+        HttpResponse<String> identity = client.send(HttpRequest.newBuilder(uri)
+                        .header("Authorization", basicAuth("user","user123"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(identity.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(identity.headers().firstValue("ETag")).hasValue(etag.replace("-gzip", ""));
+        assertThat(om.readTree(identity.body()).get("canciones").size()).isEqualTo(200);
+
+        // Ambas ETag identifican la misma versión, así que cualquiera sirve como precondición de una escritura
+        HttpResponse<Void> deleted = client.send(HttpRequest.newBuilder(uri)
+                        .header("Authorization", basicAuth("admin","admin123"))
+                        .header("If-Match", etag)
+                        .DELETE()
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        assertThat(deleted.statusCode()).isEqualTo(204);
+    }
+}
@@ -0,0 +1,101 @@
+package demo.playlist_api;
+
+import demo.playlist_api.config.ConnectionLimitingDataSource;
+import demo.playlist_api.service.PlaylistDtoCache;
+import demo.playlist_api.service.PlaylistService;
+import demo.playlist_api.web.dto.PlaylistDto;
+import demo.playlist_api.web.dto.SongDto;
+import demo.playlist_api.web.exception.NotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cache-loads;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.hikari.maximum-pool-size=1",
+        "spring.datasource.hikari.connection-timeout=5000",
+        "playlist.outbox.enabled=false",
+        // Flyway necesita dos conexiones a la vez; migra con las suyas, fuera del pool de una sola conexión
+        "spring.flyway.url=jdbc:h2:mem:cache-loads;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.flyway.user=sa",
+        "spring.flyway.password=password"
+})
+@ExtendWith(OutputCaptureExtension.class)
+class PlaylistDtoCacheTest {
+
+    @Autowired PlaylistService service;
+    @Autowired DataSource dataSource;
+    @Autowired MeterRegistry meters;
+    @Autowired PlaylistDtoCache cache;
+
+    @Test
+    void concurrentColdLoadsWithASingleConnection() throws Exception {
+        List<String> names = IntStream.range(0, 20).mapToObj(i -> "Fría " + i).toList();
+        for (String name : names) {
+            service.create(new PlaylistDto(name, null, List.of(new SongDto("Uno","Artist","Album","2024","Pop"))));
+        }
+
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+        try (var recording = new RecordingStream();
+             var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", pinned::add);
+            recording.startAsync();
+
+            List<Future<PlaylistDto>> reads = IntStream.range(0, 400)
+                    .mapToObj(i -> executor.submit(() -> service.findByName(names.get(i % names.size()))))
+                    .toList();
+            for (int i = 0; i < reads.size(); i++) {
+                assertThat(reads.get(i).get(30, TimeUnit.SECONDS).nombre()).isEqualTo(names.get(i % names.size()));
+            }
+            recording.stop();
+        }
+
+        // Ningún hilo virtual ha esperado una conexión anclado a su portador (por ejemplo, dentro de la carga de la caché)
+        assertThat(pinned).noneMatch(event -> event.getStackTrace().getFrames().stream()
+                .anyMatch(frame -> frame.getMethod().getType().getName().equals(ConnectionLimitingDataSource.class.getName())));
+
+        assertThat(((ConnectionLimitingDataSource) dataSource).availablePermits()).isEqualTo(1);
+        assertThat(meters.find("playlist.datasource.connection.timeouts").counter()).isNull();
+        assertThat(cache.stats().tamano()).isEqualTo(names.size());
+    }
+
+    @Test
+    void missingListsAreNotLoggedAsLoadFailures(CapturedOutput output) throws Exception {
+        long size = cache.stats().tamano();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<PlaylistDto>> reads = IntStream.range(0, 20)
+                    .mapToObj(i -> executor.submit(() -> service.findByName("No existe")))
+                    .toList();
+            for (Future<PlaylistDto> read : reads) {
+                assertThatThrownBy(() -> read.get(30, TimeUnit.SECONDS))
+                        .isInstanceOf(ExecutionException.class)
+                        .hasCauseInstanceOf(NotFoundException.class);
+            }
+        }
+        assertThatThrownBy(() -> service.findByName("No existe")).isInstanceOf(NotFoundException.class);
+
+        // Un 404 no deja entrada en la caché ni un aviso de Caffeine con la traza en el registro
+        assertThat(cache.stats().tamano()).isEqualTo(size);
+        assertThat(output).doesNotContain("Exception thrown during asynchronous load");
+    }
+}
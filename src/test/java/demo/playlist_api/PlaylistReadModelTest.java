@@ -0,0 +1,120 @@
+package demo.playlist_api;
+
+import demo.playlist_api.config.SqlStatementCounter;
+import demo.playlist_api.service.PlaylistReadModel;
+import demo.playlist_api.service.PlaylistService;
+import demo.playlist_api.service.ReactivePlaylistReader;
+import demo.playlist_api.service.VersionedPlaylist;
+import demo.playlist_api.web.dto.PlaylistDto;
+import demo.playlist_api.web.dto.SongDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "playlist.read-model.enabled=true",
+        "playlist.reactive.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:readmodeldb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"})
+@AutoConfigureMockMvc
+class PlaylistReadModelTest {
+
+    @Autowired MockMvc mvc;
+    @Autowired PlaylistService service;
+    @Autowired PlaylistReadModel readModel;
+    @Autowired ReactivePlaylistReader reactiveReader;
+    @Autowired SqlStatementCounter sqlStatements;
+
+    private String basicAuth(String u, String p){return "Basic " + java.util.Base64.getEncoder().encodeToString((u+":"+p).getBytes());}
+
+    @Test
+    void readsAreServedFromTheReplicaAndFollowCommittedWrites() throws Exception {
+        service.create(new PlaylistDto("Réplica A", null, List.of(new SongDto("Uno","Artist","Album","2024","Pop"))));
+        service.create(new PlaylistDto("Réplica B", null, List.of()));
+        service.addSongs("réplica b", List.of(new SongDto("Dos","Artist","Album","2024","Rock")), null);
+
+        sqlStatements.start();
+        PlaylistDto b = service.findByName("RÉPLICA B");
+        List<PlaylistDto> page = service.findAll("Réplica", 10);
+        assertThat(sqlStatements.stop()).isZero();
+        assertThat(b.canciones()).extracting(SongDto::titulo).containsExactly("Dos");
+        assertThat(page).extracting(PlaylistDto::nombre).containsExactly("Réplica A", "Réplica B");
+
+        service.deleteByName("Réplica A");
+        assertThat(readModel.get("Réplica A")).isNull();
+        assertThat(service.findAll("Réplica", 10)).extracting(PlaylistDto::nombre)
+                .containsExactly("Réplica B");
+
+        mvc.perform(get("/admin/read-model").header("Authorization", basicAuth("admin","admin123")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.construida").value(true))
+                .andExpect(jsonPath("$.consistente").value(true));
+    }
+
+    @Test
+    void reactiveReadsAreServedFromTheReplicaOnTheSubscribingThread() {
+        service.create(new PlaylistDto("Reactiva Réplica A", null, List.of()));
+        service.create(new PlaylistDto("Reactiva Réplica B", null, List.of()));
+        Thread caller = Thread.currentThread();
+
+        sqlStatements.start();
+        List<Thread> threads = reactiveReader.findAll("Reactiva Réplica")
+                .filter(p -> p.nombre().startsWith("Reactiva Réplica"))
+                .map(p -> Thread.currentThread())
+                .collectList().block();
+        PlaylistDto single = reactiveReader.findByName("reactiva réplica b").block();
+        assertThat(sqlStatements.stop()).isZero();
+        assertThat(threads).hasSize(2).containsOnly(caller);
+        assertThat(single.nombre()).isEqualTo("Reactiva Réplica B");
+    }
+
+    @Test
+    void lateUpdatesDoNotResurrectDeletedPlaylists() {
+        service.create(new PlaylistDto("Réplica Borrada", null, List.of()));
+        service.addSongs("réplica borrada", List.of(new SongDto("Uno","Artist","Album","2024","Pop")), null);
+        VersionedPlaylist updated = readModel.get("Réplica Borrada");
+        assertThat(updated.version().version()).isEqualTo(1L);
+
+        // El borrado aplica su confirmación antes que la de la escritura anterior
+        service.deleteByName("Réplica Borrada");
+        readModel.putAll(List.of(updated));
+
+        assertThat(readModel.get("Réplica Borrada")).isNull();
+        assertThat(service.findAll("Réplica", 100)).extracting(PlaylistDto::nombre)
+                .doesNotContain("Réplica Borrada");
+        assertThat(readModel.check().sobrantes()).isEmpty();
+    }
+
+    @Test
+    void writesDuringARebuildAreKeptInTheNewSnapshot() throws Exception {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var rebuilds = IntStream.range(0, 3).mapToObj(i -> executor.submit(readModel::rebuild)).toList();
+            for (int i = 0; i < 20; i++) {
+                service.create(new PlaylistDto("Reconstruida " + i, null, List.of()));
+                if (i % 2 == 0) {
+                    service.deleteByName("Reconstruida " + i);
+                }
+            }
+            for (var rebuild : rebuilds) {
+                rebuild.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        assertThat(readModel.check().isConsistente()).isTrue();
+        assertThat(service.findAll("Reconstruida", 100)).extracting(PlaylistDto::nombre)
+                .filteredOn(name -> name.startsWith("Reconstruida"))
+                .containsExactlyInAnyOrder(IntStream.range(0, 20).filter(i -> i % 2 == 1)
+                        .mapToObj(i -> "Reconstruida " + i).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,89 @@
+package demo.playlist_api;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:ratelimitdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "playlist.rate-limit.anonymous-burst=5",
+        "playlist.rate-limit.anonymous-per-second=1",
+        "playlist.reactive.enabled=true"})
+class RateLimitTest {
+
+    @LocalServerPort int port;
+    @Autowired MeterRegistry meters;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private String basicAuth(String u, String p){return "Basic " + Base64.getEncoder().encodeToString((u+":"+p).getBytes());}
+
+    private HttpResponse<String> get(String path, String authorization, String accept) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                        .header("Authorization", authorization)
+                        .header("Accept", accept)
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void passwordFloodIsLimitedByIpBeforeAuthentication() throws Exception {
+        // Las credenciales correctas no consumen la cubeta de la IP, aunque superen su ráfaga
+        for (int i = 0; i < 30; i++) {
+            assertThat(get("/lists", basicAuth("user","user123"), "application/json").statusCode()).isEqualTo(200);
+        }
+
+        int unauthorized = 0;
+        HttpResponse<String> limited = null;
+        for (int i = 0; i < 200 && limited == null; i++) {
+            var response = get("/lists", basicAuth("admin","adivina" + i), "application/json");
+            if (response.statusCode() == 429) {
+                limited = response;
+            } else {
+                assertThat(response.statusCode()).isEqualTo(401);
+                unauthorized++;
+            }
+        }
+        assertThat(limited).isNotNull();
+        assertThat(unauthorized).isBetween(5, 15);
+        assertThat(limited.headers().firstValue("Retry-After")).isPresent();
+        assertThat(limited.body()).contains("\"status\":429");
+        assertThat(meters.get("playlist.ratelimit.requests")
+                .tags("rule", "anonymous", "outcome", "rejected").counter().count()).isEqualTo(1);
+
+        // Mientras la cubeta de la IP esté vacía se rechazan también las credenciales correctas, sin comprobarlas
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> get("/lists", basicAuth("user","user123"), "application/json").statusCode() == 200);
+    }
+
+    @Test
+    void reactiveStreamFloodIsRateLimited() throws Exception {
+        int accepted = 0;
+        HttpResponse<String> limited = null;
+        for (int i = 0; i < 100 && limited == null; i++) {
+            var response = get("/reactive/lists?after=%EF%BF%BF", basicAuth("admin","admin123"), "application/x-ndjson");
+            if (response.statusCode() == 429) {
+                limited = response;
+            } else {
+                accepted++;
+            }
+        }
+        assertThat(limited).isNotNull();
+        assertThat(accepted).isBetween(20, 60);
+        assertThat(limited.headers().firstValue("Retry-After")).hasValue("1");
+        assertThat(meters.get("playlist.ratelimit.requests")
+                .tags("rule", "reactive-read", "outcome", "rejected").counter().count()).isEqualTo(1);
+    }
+}
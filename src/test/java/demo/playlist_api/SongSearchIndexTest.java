@@ -0,0 +1,68 @@
+package demo.playlist_api;
+
+import demo.playlist_api.domain.repository.PlaylistVersion;
+import demo.playlist_api.service.SongSearchIndex;
+import demo.playlist_api.web.dto.SongDto;
+import demo.playlist_api.web.dto.SongHitDto;
+import demo.playlist_api.web.dto.SongSearchResultDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SongSearchIndexTest {
+
+    private final SongSearchIndex index = new SongSearchIndex(null, null);
+
+    private static PlaylistVersion version(long id, long version) {
+        return new PlaylistVersion(id, version, null);
+    }
+
+    @Test
+    void lateIndexingDoesNotResurrectDeletedSongs() {
+        SongDto uno = new SongDto(1L, "Tombstone uno", "Artist", "Album", "2024", "Pop");
+        SongDto dos = new SongDto(2L, "Tombstone dos", "Artist", "Album", "2024", "Pop");
+        index.index(version(10, 0), "Borrada", List.of(uno));
+
+        // El borrado de la lista se aplica antes que un alta confirmada con una versión anterior
+        index.removePlaylist(version(10, 1));
+        index.index(version(10, 1), "Borrada", List.of(dos));
+        assertThat(index.search("tombstone", 0, 10).total()).isZero();
+
+        // Y el de una canción, antes que el alta de la propia canción
+        SongDto tres = new SongDto(3L, "Tombstone tres", "Artist", "Album", "2024", "Pop");
+        index.removeSongs(List.of(3L));
+        index.index(version(11, 1), "Viva", List.of(tres));
+        assertThat(index.search("tombstone", 0, 10).total()).isZero();
+
+        SongDto cuatro = new SongDto(4L, "Tombstone cuatro", "Artist", "Album", "2024", "Pop");
+        index.index(version(11, 2), "Viva", List.of(cuatro));
+        assertThat(index.search("tombstone", 0, 10).resultados())
+                .extracting(SongHitDto::lista, h -> h.cancion().id())
+                .containsExactly(tuple("Viva", 4L));
+    }
+
+    @Test
+    void shortPrefixesArePagedByRelevance() {
+        // "ro" coincide con "rock" y "rosa": las canciones con el prefijo en el título puntúan más que en el género
+        index.index(version(1, 0), "Prefijos", LongStream.rangeClosed(1, 500)
+                .mapToObj(i -> new SongDto(i, i % 100 == 0 ? "Rosa " + i : "Canción " + i, "Artista", "Álbum", "2024",
+                        i % 2 == 0 ? "Rock" : "Pop"))
+                .toList());
+
+        SongSearchResultDto first = index.search("ro", 0, 3);
+        assertThat(first.total()).isEqualTo(250);
+        assertThat(first.resultados()).extracting(h -> h.cancion().titulo())
+                .containsExactly("Rosa 100", "Rosa 200", "Rosa 300");
+        SongSearchResultDto second = index.search("ro", 3, 3);
+        assertThat(second.resultados()).extracting(h -> h.cancion().titulo())
+                .containsExactly("Rosa 400", "Rosa 500", "Canción 2");
+
+        assertThat(index.search("ro cancion", 0, 100).total()).isEqualTo(245);
+        assertThat(index.search("ro canción 7", 0, 10).total()).isZero();
+        assertThat(index.search("rosa 300", 0, 10).resultados()).extracting(h -> h.cancion().id()).containsExactly(300L);
+    }
+}